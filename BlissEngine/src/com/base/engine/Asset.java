@@ -0,0 +1,65 @@
+package com.base.engine;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * An Asset is a reference-counted handle to something loaded by the AssetManager.
+ * The handle is returned right away; the asset itself becomes available once it has been
+ * decoded and uploaded. Every handle obtained from AssetManager.load() must be released.
+ *
+ * @param <T> The type of the loaded asset.
+ */
+public class Asset<T> {
+    private final AssetManager manager;
+    private final String path;
+    private final AssetLoader<T> loader;
+    private final CompletableFuture<T> future = new CompletableFuture<T>();
+
+    // Guarded by the manager
+    int refCount;
+    long size;
+
+    Asset(AssetManager manager, String path, AssetLoader<T> loader) {
+        this.manager = manager;
+        this.path = path;
+        this.loader = loader;
+    }
+
+    /**
+     * Returns the loaded asset without blocking.
+     *
+     * @return The asset, or null if it hasn't finished loading (or failed to load).
+     */
+    public T get() {
+        return isLoaded() ? future.join() : null;
+    }
+
+    /**
+     * Returns a future that completes on the loop thread once the asset has been uploaded.
+     *
+     * @return The future of the asset.
+     */
+    public CompletableFuture<T> getFuture() {
+        return future;
+    }
+
+    // Returns true once the asset has been decoded and uploaded
+    public boolean isLoaded() {
+        return future.isDone() && !future.isCompletedExceptionally();
+    }
+
+    // Gives up this reference; the asset stays cached until the cache needs the space
+    public void release() {
+        manager.release(this);
+    }
+
+    // Returns the path the asset was loaded from
+    public String getPath() {
+        return path;
+    }
+
+    // Returns the loader that produced the asset
+    public AssetLoader<T> getLoader() {
+        return loader;
+    }
+}
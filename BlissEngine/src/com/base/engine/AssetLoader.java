@@ -0,0 +1,47 @@
+package com.base.engine;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * An AssetLoader turns the raw bytes of a file into a usable asset of type T.
+ * decode() runs on a background loader thread, while upload() and dispose() always run
+ * on the loop thread, so they are the only places that may touch OpenGL.
+ *
+ * @param <T> The type of asset produced by this loader.
+ */
+public interface AssetLoader<T> {
+
+    /**
+     * Decodes an asset from the contents of a file. Called on a loader thread.
+     *
+     * @param path The path the data was read from.
+     * @param data The file contents; a memory-mapped buffer for large files.
+     * @return The decoded asset.
+     * @throws IOException If the data is malformed.
+     */
+    T decode(String path, ByteBuffer data) throws IOException;
+
+    /**
+     * Returns the approximate number of bytes the asset keeps alive, used to bound the cache.
+     *
+     * @param asset The decoded asset.
+     * @return The size of the asset in bytes.
+     */
+    long getSize(T asset);
+
+    /**
+     * Uploads the decoded asset to the GPU (or does any other work that must happen on the loop thread).
+     *
+     * @param asset The decoded asset.
+     */
+    void upload(T asset);
+
+    /**
+     * Releases the resources held by the asset after it has been evicted from the cache.
+     * Called on the loop thread.
+     *
+     * @param asset The asset to dispose of.
+     */
+    void dispose(T asset);
+}
@@ -0,0 +1,226 @@
+package com.base.engine;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The AssetManager loads assets asynchronously. Files are read and decoded on background
+ * threads, and only the final upload step is handed back to the loop thread, which runs it
+ * from update() within a per-frame time budget.
+ *
+ * Concurrent requests for the same path share a single load. Loaded assets are reference
+ * counted; assets nobody references any more stay cached and are evicted least recently
+ * released first once the cache grows past its size limit.
+ */
+public class AssetManager {
+    // Files at least this large are memory-mapped instead of read into a buffer
+    public static final long MAP_THRESHOLD = 1024 * 1024;
+
+    private final long maxCacheBytes;
+    private final ExecutorService loaders;
+
+    // All assets that are loading or loaded, by path; guarded by this
+    private final HashMap<String, Asset<?>> assets = new HashMap<String, Asset<?>>();
+    // Loaded assets with no references, least recently released first; guarded by this
+    private final LinkedHashMap<String, Asset<?>> unused = new LinkedHashMap<String, Asset<?>>();
+    private long cachedBytes;
+
+    // Work that has to run on the loop thread (uploads and disposals)
+    private final MainThreadQueue loopTasks = new MainThreadQueue();
+
+    /**
+     * Creates an asset manager.
+     *
+     * @param maxCacheBytes The size the cache may grow to before unused assets are evicted.
+     * @param loaderThreads The number of background threads reading and decoding files.
+     */
+    public AssetManager(long maxCacheBytes, int loaderThreads) {
+        this.maxCacheBytes = maxCacheBytes;
+
+        final AtomicInteger threadNumber = new AtomicInteger();
+        this.loaders = Executors.newFixedThreadPool(loaderThreads, r -> {
+            Thread thread = new Thread(r, "bliss-loader-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Requests an asset and returns a handle to it immediately. If the asset is already
+     * cached or loading, the existing one is shared; otherwise it is loaded in the background.
+     *
+     * @param path The file to load.
+     * @param loader The loader that decodes and uploads the file.
+     * @return A handle to the asset, which must be released when no longer needed.
+     */
+    @SuppressWarnings("unchecked")
+    public synchronized <T> Asset<T> load(String path, AssetLoader<T> loader) {
+        Asset<T> asset = (Asset<T>) assets.get(path);
+
+        if (asset == null) {
+            asset = new Asset<T>(this, path, loader);
+            assets.put(path, asset);
+            submit(asset);
+        } else if (asset.getLoader() != loader) {
+            throw new IllegalArgumentException("Asset " + path + " is already loaded with a different loader");
+        }
+
+        if (asset.refCount++ == 0) {
+            unused.remove(path);
+        }
+        return asset;
+    }
+
+    /**
+     * Runs pending uploads on the loop thread until the time budget is used up.
+     * At least one task is run per call so loading always makes progress.
+     *
+     * @param budget The time to spend, in nanoseconds.
+     */
+    public void update(long budget) {
+        loopTasks.drain(budget);
+    }
+
+    /**
+     * Stops the loader threads and disposes every asset still in the cache, referenced or not.
+     * Loads in progress are abandoned and their futures cancelled. Must be called on the loop
+     * thread, while whatever the loaders upload to (e.g. the OpenGL context) still exists.
+     */
+    public void shutdown() {
+        loaders.shutdownNow();
+
+        synchronized (this) {
+            for (Asset<?> asset : assets.values()) {
+                if (asset.isLoaded()) {
+                    loopTasks.execute(() -> dispose(asset));
+                } else {
+                    asset.getFuture().cancel(false);
+                }
+            }
+            assets.clear();
+            unused.clear();
+            cachedBytes = 0;
+        }
+
+        // Pending uploads of cancelled assets are skipped, so this only runs the disposals
+        loopTasks.drain(Long.MAX_VALUE);
+    }
+
+    // Returns the number of bytes held by loaded assets
+    public synchronized long getCachedBytes() {
+        return cachedBytes;
+    }
+
+    // Drops a reference to an asset and makes it evictable once nobody uses it
+    synchronized void release(Asset<?> asset) {
+        if (asset.refCount <= 0) {
+            throw new IllegalStateException("Asset " + asset.getPath() + " released more often than loaded");
+        }
+
+        if (--asset.refCount == 0 && asset.isLoaded()) {
+            unused.put(asset.getPath(), asset);
+            evict();
+        }
+    }
+
+    // Reads and decodes the asset on a loader thread, then queues the upload for the loop thread
+    private <T> void submit(final Asset<T> asset) {
+        loaders.execute(() -> {
+            final T value;
+            try {
+                value = asset.getLoader().decode(asset.getPath(), read(asset.getPath()));
+            } catch (IOException | RuntimeException e) {
+                failed(asset, e);
+                return;
+            }
+
+            loopTasks.execute(() -> {
+                if (asset.getFuture().isCancelled()) {
+                    return;  // The manager was shut down while the asset was loading
+                }
+
+                try {
+                    asset.getLoader().upload(value);
+                } catch (RuntimeException e) {
+                    // The upload may have got partway, so release whatever it created
+                    try {
+                        asset.getLoader().dispose(value);
+                    } catch (RuntimeException disposeError) {
+                        e.addSuppressed(disposeError);
+                    }
+                    failed(asset, e);
+                    return;
+                }
+                loaded(asset, value);
+            });
+        });
+    }
+
+    // Records a finished asset and completes its future on the loop thread
+    private <T> void loaded(Asset<T> asset, T value) {
+        synchronized (this) {
+            asset.size = asset.getLoader().getSize(value);
+            cachedBytes += asset.size;
+        }
+
+        asset.getFuture().complete(value);
+
+        synchronized (this) {
+            if (asset.refCount == 0) {
+                unused.put(asset.getPath(), asset);
+            }
+            evict();
+        }
+    }
+
+    // Forgets a failed asset so a later request can retry it
+    private void failed(Asset<?> asset, Throwable cause) {
+        synchronized (this) {
+            assets.remove(asset.getPath());
+        }
+        asset.getFuture().completeExceptionally(cause);
+    }
+
+    // Evicts unused assets, least recently released first, until the cache fits its limit
+    private void evict() {
+        Iterator<Asset<?>> it = unused.values().iterator();
+        while (cachedBytes > maxCacheBytes && it.hasNext()) {
+            Asset<?> asset = it.next();
+            it.remove();
+            assets.remove(asset.getPath());
+            cachedBytes -= asset.size;
+            loopTasks.execute(() -> dispose(asset));
+        }
+    }
+
+    private static <T> void dispose(Asset<T> asset) {
+        asset.getLoader().dispose(asset.getFuture().join());
+    }
+
+    // Reads a whole file, memory-mapping it if it is large enough
+    private static ByteBuffer read(String path) throws IOException {
+        try (FileChannel channel = FileChannel.open(Paths.get(path), StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size >= MAP_THRESHOLD) {
+                return channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            }
+
+            // Direct, so decoded views of the data can be passed to OpenGL without another copy
+            ByteBuffer data = ByteBuffer.allocateDirect((int) size);
+            while (data.hasRemaining() && channel.read(data) >= 0) {
+                // Keep reading until the buffer is full or the file ends
+            }
+            data.flip();
+            return data;
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.base.engine;
+
+/**
+ * Subsystem owning the AssetManager, so its loader threads only exist once something loads an
+ * asset. Setting it up doesn't need the main thread, so it can be warmed in the background while
+ * the window is created. Disposing it shuts the manager down and disposes every cached asset,
+ * which the registry always does on the main thread, where the OpenGL context lives; register it
+ * after the window so it is disposed first.
+ */
+public class AssetSubsystem implements Subsystem {
+    // Name the asset manager is registered under
+    public static final String NAME = "assets";
+
+    private final SubsystemRegistry registry;
+    private final long maxCacheBytes;
+    private final int loaderThreads;
+    private volatile AssetManager manager;
+
+    /**
+     * Creates the subsystem; register it with the given registry under NAME.
+     *
+     * @param registry The registry the subsystem sets itself up through on first use.
+     * @param maxCacheBytes The size the asset cache may grow to before unused assets are evicted.
+     * @param loaderThreads The number of background threads reading and decoding files.
+     */
+    public AssetSubsystem(SubsystemRegistry registry, long maxCacheBytes, int loaderThreads) {
+        this.registry = registry;
+        this.maxCacheBytes = maxCacheBytes;
+        this.loaderThreads = loaderThreads;
+    }
+
+    public void init() {
+        manager = new AssetManager(maxCacheBytes, loaderThreads);
+    }
+
+    public void dispose() {
+        manager.shutdown();
+        manager = null;
+    }
+
+    public boolean requiresMainThread() {
+        return false;
+    }
+
+    // Returns the asset manager, setting it up on first use
+    public AssetManager getManager() {
+        AssetManager current = manager;
+        if (current == null) {
+            registry.require(NAME);
+            current = manager;
+        }
+        return current;
+    }
+
+    // Returns the asset manager if it has been set up, or null
+    public AssetManager getManagerIfCreated() {
+        return manager;
+    }
+}
@@ -0,0 +1,60 @@
+package com.base.engine;
+
+import java.nio.ByteBuffer;
+
+/**
+ * The BitReader class reads values written by a BitWriter from a ByteBuffer.
+ */
+public class BitReader {
+    private ByteBuffer buffer;
+    private long scratch;
+    private int scratchBits;
+
+    /**
+     * Starts reading at the current position of a buffer.
+     *
+     * @param buffer The buffer to read from.
+     * @return This reader.
+     */
+    public BitReader reset(ByteBuffer buffer) {
+        this.buffer = buffer;
+        this.scratch = 0;
+        this.scratchBits = 0;
+        return this;
+    }
+
+    /**
+     * Reads an unsigned value.
+     *
+     * @param bits The number of bits to read (1 to 32).
+     * @return The value.
+     * @throws java.nio.BufferUnderflowException If the buffer ends first.
+     */
+    public int read(int bits) {
+        while (scratchBits < bits) {
+            scratch |= (buffer.get() & 0xFFL) << scratchBits;
+            scratchBits += 8;
+        }
+
+        int value = (int) (scratch & (-1L >>> (64 - bits)));
+        scratch >>>= bits;
+        scratchBits -= bits;
+        return value;
+    }
+
+    // Reads a single bit
+    public boolean readBoolean() {
+        return read(1) != 0;
+    }
+
+    /**
+     * Reads a signed value written with BitWriter.writeSigned().
+     *
+     * @param bits The number of bits to read (1 to 32).
+     * @return The value.
+     */
+    public int readSigned(int bits) {
+        int value = read(bits);
+        return (value >>> 1) ^ -(value & 1);
+    }
+}
@@ -0,0 +1,67 @@
+package com.base.engine;
+
+import java.nio.ByteBuffer;
+
+/**
+ * The BitWriter class packs values of arbitrary bit widths into a ByteBuffer, least significant
+ * bit first. It holds no buffer of its own, so one writer can be reused for every packet.
+ */
+public class BitWriter {
+    private ByteBuffer buffer;
+    private long scratch;
+    private int scratchBits;
+
+    /**
+     * Starts writing at the current position of a buffer.
+     *
+     * @param buffer The buffer to write to.
+     * @return This writer.
+     */
+    public BitWriter reset(ByteBuffer buffer) {
+        this.buffer = buffer;
+        this.scratch = 0;
+        this.scratchBits = 0;
+        return this;
+    }
+
+    /**
+     * Writes the lowest bits of a value.
+     *
+     * @param value The value to write.
+     * @param bits The number of bits to write (1 to 32).
+     */
+    public void write(int value, int bits) {
+        scratch |= (value & (-1L >>> (64 - bits))) << scratchBits;
+        scratchBits += bits;
+
+        while (scratchBits >= 8) {
+            buffer.put((byte) scratch);
+            scratch >>>= 8;
+            scratchBits -= 8;
+        }
+    }
+
+    // Writes a single bit
+    public void writeBoolean(boolean value) {
+        write(value ? 1 : 0, 1);
+    }
+
+    /**
+     * Writes a signed value in zigzag encoding, so small negative values stay small.
+     *
+     * @param value The value to write; must fit in the given number of bits as a signed number.
+     * @param bits The number of bits to write (1 to 32).
+     */
+    public void writeSigned(int value, int bits) {
+        write((value << 1) ^ (value >> 31), bits);
+    }
+
+    // Writes out the last partial byte, padded with zeros
+    public void flush() {
+        if (scratchBits > 0) {
+            buffer.put((byte) scratch);
+            scratch = 0;
+            scratchBits = 0;
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.base.engine;
+
+/**
+ * The EngineContext class is a self-contained engine instance. It owns its own game, clock and
+ * input state, so many of them can live side by side in one JVM (see EngineHost).
+ * While an instance ticks it is bound to the current thread, and the static Time and Input
+ * accessors resolve to its state instead of the global one.
+ */
+public class EngineContext {
+    // The engine instance currently ticking on each thread, or null.
+    private static final ThreadLocal<EngineContext> CURRENT = new ThreadLocal<EngineContext>();
+
+    // Time the tasks queued by other threads may take per tick
+    public static final long TASK_BUDGET = Time.SECOND / 1000;
+
+    private final String name;
+    private final Game game;
+    private final InputState input;
+    private final MainThreadQueue tasks;
+    private final double tickRate;
+
+    private double delta;
+    private long tickCount;
+    private volatile boolean running;
+
+    /**
+     * Creates a new engine instance.
+     *
+     * @param name A name identifying the instance (used in log output and thread names).
+     * @param game The game this instance runs.
+     * @param tickRate The number of game updates per second.
+     */
+    public EngineContext(String name, Game game, double tickRate) {
+        if (tickRate <= 0) {
+            throw new IllegalArgumentException("Tick rate must be positive: " + tickRate);
+        }
+
+        this.name = name;
+        this.game = game;
+        this.tickRate = tickRate;
+        this.input = new InputState();
+        this.tasks = new MainThreadQueue();
+        game.setTasks(tasks);
+        this.running = true;
+    }
+
+    /**
+     * Runs a single game tick: runs queued tasks, updates the input state, then lets the game handle
+     * input and update.
+     * The instance is bound to the calling thread for the duration of the tick.
+     */
+    public void tick() {
+        EngineContext previous = CURRENT.get();
+        CURRENT.set(this);
+        try {
+            delta = 1.0 / tickRate;
+            tasks.drain(TASK_BUDGET);
+            input.update();
+
+            game.input();
+            game.update();
+
+            tickCount++;
+        } finally {
+            CURRENT.set(previous);
+        }
+    }
+
+    /**
+     * Returns the engine instance ticking on the calling thread.
+     *
+     * @return The bound EngineContext, or null if the thread is not ticking an instance.
+     */
+    public static EngineContext current() {
+        return CURRENT.get();
+    }
+
+    // Marks the instance as stopped; its host drops it before the next tick
+    public void stop() {
+        running = false;
+    }
+
+    // Returns true until stop() has been called
+    public boolean isRunning() {
+        return running;
+    }
+
+    // Returns the name of this instance
+    public String getName() {
+        return name;
+    }
+
+    // Returns the game run by this instance
+    public Game getGame() {
+        return game;
+    }
+
+    // Returns the input state of this instance; feed it from other threads through getTasks()
+    public InputState getInput() {
+        return input;
+    }
+
+    // Returns the queue whose tasks run on this instance's tick, on whichever host thread ticks it
+    public MainThreadQueue getTasks() {
+        return tasks;
+    }
+
+    // Returns the number of game updates per second
+    public double getTickRate() {
+        return tickRate;
+    }
+
+    // Returns the delta time of the current tick
+    public double getDelta() {
+        return delta;
+    }
+
+    // Returns the number of ticks run so far
+    public long getTickCount() {
+        return tickCount;
+    }
+
+    public String toString() {
+        return "EngineContext(" + name + ")";
+    }
+}
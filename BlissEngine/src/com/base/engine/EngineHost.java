@@ -0,0 +1,160 @@
+package com.base.engine;
+
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The EngineHost class runs many EngineContext instances on a shared, fixed pool of worker threads.
+ * Each instance keeps its own tick rate. Workers always pick the instance whose next tick is due
+ * the earliest, and an instance that has fallen behind only catches up a bounded number of ticks
+ * before it is handed back, so a slow instance cannot starve the others.
+ * An instance is never ticked by two workers at the same time.
+ */
+public class EngineHost {
+    // Maximum number of ticks an instance may run back to back to catch up before yielding
+    public static final int MAX_CATCH_UP_TICKS = 5;
+
+    private final int workerCount;
+    private final DelayQueue<ScheduledContext> queue = new DelayQueue<ScheduledContext>();
+    private final AtomicInteger instanceCount = new AtomicInteger();
+
+    private ExecutorService workers;
+    private volatile boolean isRunning;
+
+    /**
+     * Creates a host with the given number of worker threads.
+     *
+     * @param workerCount The number of threads ticking instances, usually the number of cores.
+     */
+    public EngineHost(int workerCount) {
+        if (workerCount <= 0) {
+            throw new IllegalArgumentException("Worker count must be positive: " + workerCount);
+        }
+        this.workerCount = workerCount;
+    }
+
+    // Creates a host with one worker per available core
+    public EngineHost() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Adds an instance to the host. Its first tick is scheduled immediately.
+     *
+     * @param context The instance to run.
+     */
+    public void add(EngineContext context) {
+        instanceCount.incrementAndGet();
+        queue.offer(new ScheduledContext(context, Time.getTime()));
+    }
+
+    // Starts the worker threads if they aren't already running
+    public synchronized void start() {
+        if (isRunning) {
+            return;
+        }
+        isRunning = true;
+
+        final AtomicInteger threadNumber = new AtomicInteger();
+        workers = Executors.newFixedThreadPool(workerCount, r -> {
+            Thread thread = new Thread(r, "bliss-host-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        for (int i = 0; i < workerCount; i++) {
+            workers.execute(this::work);
+        }
+    }
+
+    // Stops the worker threads; instances that are mid-tick finish that tick first
+    public synchronized void stop() {
+        if (!isRunning) {
+            return;
+        }
+        isRunning = false;
+
+        workers.shutdownNow();
+        try {
+            workers.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // Returns the number of instances that haven't been stopped or dropped yet
+    public int getInstanceCount() {
+        return instanceCount.get();
+    }
+
+    // Worker loop: takes the instance that is due the earliest, ticks it and schedules it again
+    private void work() {
+        while (isRunning) {
+            ScheduledContext scheduled;
+            try {
+                scheduled = queue.take();
+            } catch (InterruptedException e) {
+                return;
+            }
+
+            EngineContext context = scheduled.context;
+            if (!context.isRunning()) {
+                instanceCount.decrementAndGet();
+                continue;
+            }
+
+            long period = (long) (Time.SECOND / context.getTickRate());
+            long now = Time.getTime();
+
+            // Run the ticks that are owed, but no more than MAX_CATCH_UP_TICKS in one go
+            long owed = 1 + (now - scheduled.nextTick) / period;
+            int ticks = (int) Math.min(owed, MAX_CATCH_UP_TICKS);
+
+            try {
+                for (int i = 0; i < ticks && context.isRunning(); i++) {
+                    context.tick();
+                }
+            } catch (Throwable e) {
+                // A broken instance is dropped instead of taking the worker down with it; this
+                // includes Errors, which would otherwise end the worker loop for good
+                System.err.println("Dropping " + context + " after an uncaught exception");
+                e.printStackTrace();
+                context.stop();
+                instanceCount.decrementAndGet();
+                continue;
+            }
+
+            scheduled.nextTick += ticks * period;
+
+            // If the instance is still far behind, skip the lost time instead of spiralling
+            if (now - scheduled.nextTick > MAX_CATCH_UP_TICKS * period) {
+                scheduled.nextTick = now + period;
+            }
+
+            queue.offer(scheduled);
+        }
+    }
+
+    // An instance together with the time its next tick is due
+    private static class ScheduledContext implements Delayed {
+        private final EngineContext context;
+        private long nextTick;
+
+        private ScheduledContext(EngineContext context, long nextTick) {
+            this.context = context;
+            this.nextTick = nextTick;
+        }
+
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(nextTick - Time.getTime(), TimeUnit.NANOSECONDS);
+        }
+
+        public int compareTo(Delayed o) {
+            return Long.compare(nextTick, ((ScheduledContext) o).nextTick);
+        }
+    }
+}
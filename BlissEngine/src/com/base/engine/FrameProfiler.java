@@ -0,0 +1,246 @@
+package com.base.engine;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * The FrameProfiler class measures the time and the heap allocation of each phase of the main loop.
+ * Allocation is sampled from the per-thread allocation counter of the JVM, and every tick and
+ * phase is also recorded as a JFR event (TickEvent, PhaseEvent) carrying the tick and frame
+ * numbers, so recordings line up with the game.
+ *
+ * Profiling is off unless the JVM is started with -Dbliss.profile=true. With
+ * -Dbliss.profile.budget=N, every phase that allocates more than N bytes is reported and
+ * checkBudget() fails, which lets CI enforce a zero-allocation budget with N=0.
+ * The first -Dbliss.profile.warmup ticks (DEFAULT_WARMUP by default) are still measured but
+ * don't count against the budget, since first calls set up classes, lambdas and thread locals.
+ */
+public class FrameProfiler {
+
+    /**
+     * The phases of the main loop.
+     */
+    public enum Phase {
+        TASKS("tasks"),
+        INPUT_UPDATE("Input.update"),
+        GAME_INPUT("game.input"),
+        GAME_UPDATE("game.update"),
+        RENDER("render");
+
+        private final String label;
+
+        Phase(String label) {
+            this.label = label;
+        }
+
+        public String toString() {
+            return label;
+        }
+    }
+
+    // Number of ticks that don't count against the budget unless -Dbliss.profile.warmup is set
+    public static final int DEFAULT_WARMUP = 60;
+
+    private static final int NUM_PHASES = Phase.values().length;
+
+    private final boolean enabled;
+    private final long budget;
+    private final long warmup;
+    private final com.sun.management.ThreadMXBean threads;
+    private final long threadId;
+
+    // Bytes allocated by a pair of allocation samples themselves, subtracted from every measurement
+    private final long samplingOverhead;
+
+    private long tick;
+    private long frame;
+    private long budgetViolations;
+
+    // State of the tick and the phase in progress
+    private TickEvent tickEvent;
+    private long tickBytes;
+    private PhaseEvent phaseEvent;
+    private long phaseStartTime;
+    private long phaseStartBytes;
+
+    // Statistics per phase, indexed by ordinal
+    private final long[] totalBytes = new long[NUM_PHASES];
+    private final long[] maxBytes = new long[NUM_PHASES];
+    private final long[] totalTime = new long[NUM_PHASES];
+    private final long[] count = new long[NUM_PHASES];
+
+    /**
+     * Creates a profiler for the calling thread, configured from the bliss.profile system properties.
+     */
+    public FrameProfiler() {
+        this(Boolean.getBoolean("bliss.profile"), Long.getLong("bliss.profile.budget", -1),
+             Integer.getInteger("bliss.profile.warmup", DEFAULT_WARMUP));
+    }
+
+    /**
+     * Creates a profiler for the calling thread that counts every tick against the budget.
+     *
+     * @param enabled True to measure; when false every method returns immediately.
+     * @param budget The number of bytes a phase may allocate, or -1 for no budget.
+     */
+    public FrameProfiler(boolean enabled, long budget) {
+        this(enabled, budget, 0);
+    }
+
+    /**
+     * Creates a profiler for the calling thread.
+     *
+     * @param enabled True to measure; when false every method returns immediately.
+     * @param budget The number of bytes a phase may allocate, or -1 for no budget.
+     * @param warmup The number of ticks that are measured but not counted against the budget.
+     */
+    public FrameProfiler(boolean enabled, long budget, int warmup) {
+        // The management classes are only loaded when profiling, to keep them out of startup
+        this.threads = enabled ? threadBean() : null;
+        this.threadId = Thread.currentThread().getId();
+        this.enabled = enabled && threads.isThreadAllocatedMemorySupported();
+        this.budget = budget;
+        this.warmup = warmup;
+
+        if (this.enabled) {
+            threads.setThreadAllocatedMemoryEnabled(true);
+        }
+        this.samplingOverhead = this.enabled ? calibrate() : 0;
+    }
+
+    // Starts a game update tick
+    public void beginTick() {
+        if (!enabled) {
+            return;
+        }
+
+        tickEvent = new TickEvent();
+        tickEvent.begin();
+        tickBytes = 0;
+    }
+
+    // Ends the current game update tick and records it
+    public void endTick() {
+        if (!enabled) {
+            return;
+        }
+
+        tickEvent.end();
+        if (tickEvent.shouldCommit()) {
+            tickEvent.tick = tick;
+            tickEvent.frame = frame;
+            tickEvent.allocatedBytes = tickBytes;
+            tickEvent.commit();
+        }
+        tickEvent = null;
+        tick++;
+    }
+
+    /**
+     * Starts measuring a phase. Phases don't nest; each begin() must be followed by its end().
+     *
+     * @param phase The phase about to run.
+     */
+    public void begin(Phase phase) {
+        if (!enabled) {
+            return;
+        }
+
+        // The event is created before sampling so its allocation isn't charged to the phase
+        phaseEvent = new PhaseEvent();
+        phaseEvent.begin();
+        phaseStartTime = Time.getTime();
+        phaseStartBytes = threads.getThreadAllocatedBytes(threadId);
+    }
+
+    /**
+     * Stops measuring a phase and records it.
+     *
+     * @param phase The phase that just ran.
+     */
+    public void end(Phase phase) {
+        if (!enabled) {
+            return;
+        }
+
+        long bytes = Math.max(threads.getThreadAllocatedBytes(threadId) - phaseStartBytes - samplingOverhead, 0);
+        long time = Time.getTime() - phaseStartTime;
+        phaseEvent.end();
+
+        int i = phase.ordinal();
+        totalBytes[i] += bytes;
+        maxBytes[i] = Math.max(maxBytes[i], bytes);
+        totalTime[i] += time;
+        count[i]++;
+        tickBytes += bytes;
+
+        if (phaseEvent.shouldCommit()) {
+            phaseEvent.phase = phase.toString();
+            phaseEvent.tick = tick;
+            phaseEvent.frame = frame;
+            phaseEvent.allocatedBytes = bytes;
+            phaseEvent.commit();
+        }
+        phaseEvent = null;
+
+        if (phase == Phase.RENDER) {
+            frame++;
+        }
+
+        if (budget >= 0 && bytes > budget && tick >= warmup) {
+            budgetViolations++;
+            System.err.println("Allocation budget exceeded in " + phase + " (tick " + tick + ", frame " + frame + "): "
+                               + bytes + " bytes, budget " + budget);
+        }
+    }
+
+    // Prints the average time and allocation of each phase
+    public void report() {
+        if (!enabled) {
+            return;
+        }
+
+        System.out.println("Phase            calls     avg us    avg bytes    max bytes");
+        for (Phase phase : Phase.values()) {
+            int i = phase.ordinal();
+            long n = Math.max(count[i], 1);
+            System.out.println(String.format("%-14s %7d %10.2f %12d %12d", phase, count[i],
+                                             totalTime[i] / (double) n / 1000.0, totalBytes[i] / n, maxBytes[i]));
+        }
+    }
+
+    /**
+     * Fails if any phase exceeded the allocation budget.
+     *
+     * @throws IllegalStateException If the budget was exceeded at least once.
+     */
+    public void checkBudget() {
+        if (budgetViolations > 0) {
+            throw new IllegalStateException("Allocation budget of " + budget + " bytes exceeded " + budgetViolations + " times");
+        }
+    }
+
+    // Returns true if the profiler is measuring
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    // Returns the number of phases that allocated more than the budget
+    public long getBudgetViolations() {
+        return budgetViolations;
+    }
+
+    private static com.sun.management.ThreadMXBean threadBean() {
+        return (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    }
+
+    // Measures how much a pair of samples allocates by itself (the JVM may box the thread id into an array)
+    private long calibrate() {
+        long overhead = Long.MAX_VALUE;
+        for (int i = 0; i < 16; i++) {
+            long start = threads.getThreadAllocatedBytes(threadId);
+            long end = threads.getThreadAllocatedBytes(threadId);
+            overhead = Math.min(overhead, end - start);
+        }
+        return overhead;
+    }
+}
@@ -3,6 +3,10 @@ package com.base.engine;
 import org.lwjgl.input.Keyboard;
 
 public class Game {
+    // Subsystem providing the asset manager used to load textures, meshes and other resources
+    private AssetSubsystem assets;
+    // Queue other threads use to run work on the loop thread
+    private MainThreadQueue tasks;
     
     // Constructor for the Game class
     public Game() {
@@ -41,4 +45,24 @@ public class Game {
     public void render() {
         // Rendering code goes here (e.g., drawing objects, UI, etc.)
     }
+
+    // Returns the asset manager the game loads its resources with, setting it up on first use
+    public AssetManager getAssets() {
+        return assets != null ? assets.getManager() : null;
+    }
+
+    // Sets the subsystem providing the asset manager the game loads its resources with
+    public void setAssets(AssetSubsystem assets) {
+        this.assets = assets;
+    }
+
+    // Returns the queue whose tasks run on the loop thread at the start of each tick
+    public MainThreadQueue getTasks() {
+        return tasks;
+    }
+
+    // Sets the queue whose tasks run on the loop thread at the start of each tick
+    public void setTasks(MainThreadQueue tasks) {
+        this.tasks = tasks;
+    }
 }
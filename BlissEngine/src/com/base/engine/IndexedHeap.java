@@ -0,0 +1,114 @@
+package com.base.engine;
+
+import java.util.Arrays;
+
+/**
+ * A binary min-heap of node indices keyed by float priorities, stored in primitive arrays.
+ * It also tracks where each node sits in the heap, so a node's priority can be lowered in place
+ * instead of inserting a duplicate.
+ */
+class IndexedHeap {
+    private int[] nodes;       // Heap of node indices
+    private float[] keys;      // Priority of the node at each heap slot
+    private int[] positions;   // Heap slot of each node, or -1
+    private int size;
+
+    IndexedHeap(int capacity) {
+        nodes = new int[capacity];
+        keys = new float[capacity];
+        positions = new int[capacity];
+        Arrays.fill(positions, -1);
+    }
+
+    // Makes room for node indices below capacity; only valid while the heap is empty
+    void ensureCapacity(int capacity) {
+        if (capacity > positions.length) {
+            nodes = new int[capacity];
+            keys = new float[capacity];
+            positions = new int[capacity];
+            Arrays.fill(positions, -1);
+        }
+    }
+
+    // Inserts a node, or lowers its priority if it is already in the heap with a higher one
+    void push(int node, float key) {
+        int i = positions[node];
+        if (i < 0) {
+            i = size++;
+            nodes[i] = node;
+            positions[node] = i;
+        } else if (key >= keys[i]) {
+            return;
+        }
+        keys[i] = key;
+        siftUp(i);
+    }
+
+    // Removes and returns the node with the lowest priority
+    int pop() {
+        int top = nodes[0];
+        positions[top] = -1;
+
+        size--;
+        if (size > 0) {
+            move(size, 0);
+            siftDown(0);
+        }
+        return top;
+    }
+
+    // Removes all nodes
+    void clear() {
+        for (int i = 0; i < size; i++) {
+            positions[nodes[i]] = -1;
+        }
+        size = 0;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    private void siftUp(int i) {
+        int node = nodes[i];
+        float key = keys[i];
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (keys[parent] <= key) {
+                break;
+            }
+            move(parent, i);
+            i = parent;
+        }
+        nodes[i] = node;
+        keys[i] = key;
+        positions[node] = i;
+    }
+
+    private void siftDown(int i) {
+        int node = nodes[i];
+        float key = keys[i];
+        int half = size >>> 1;
+        while (i < half) {
+            int child = 2 * i + 1;
+            if (child + 1 < size && keys[child + 1] < keys[child]) {
+                child++;
+            }
+            if (key <= keys[child]) {
+                break;
+            }
+            move(child, i);
+            i = child;
+        }
+        nodes[i] = node;
+        keys[i] = key;
+        positions[node] = i;
+    }
+
+    // Copies the entry in slot from into slot to
+    private void move(int from, int to) {
+        nodes[to] = nodes[from];
+        keys[to] = keys[from];
+        positions[nodes[to]] = to;
+    }
+}
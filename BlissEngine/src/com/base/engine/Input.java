@@ -1,7 +1,6 @@
 package com.base.engine;
 
-import java.util.ArrayList;
-
+import org.lwjgl.LWJGLException;
 import org.lwjgl.input.Keyboard;
 import org.lwjgl.input.Mouse;
 
@@ -14,67 +13,70 @@ public class Input {
     public static final int NUM_KEYCODES = 256; // Total number of keys supported.
     public static final int NUM_MOUSEBUTTONS = 5; // Total number of mouse buttons supported.
 
-    // Lists to track the current, down, and up states of keys and mouse buttons.
-    private static ArrayList<Integer> currentKeys = new ArrayList<Integer>(); // Currently pressed keys.
-    private static ArrayList<Integer> downKeys = new ArrayList<Integer>(); // Keys that were just pressed.
-    private static ArrayList<Integer> upKeys = new ArrayList<Integer>(); // Keys that were just released.
+    // Name the input is registered under in the global SubsystemRegistry
+    public static final String SUBSYSTEM = "input";
 
-    private static ArrayList<Integer> currentMouse = new ArrayList<Integer>(); // Currently pressed mouse buttons.
-    private static ArrayList<Integer> downMouse = new ArrayList<Integer>(); // Mouse buttons that were just pressed.
-    private static ArrayList<Integer> upMouse = new ArrayList<Integer>(); // Mouse buttons that were just released.
+    // State fed from the LWJGL keyboard and mouse, used when no engine instance is bound to the thread.
+    private static InputState state = new InputState();
+    private static boolean created;
 
     /**
-     * Updates the state of the input (keyboard and mouse). 
-     * It checks which keys and mouse buttons are currently pressed, were just pressed, or were just released.
+     * Creates the LWJGL keyboard and mouse. The window has to be created first.
      */
-    public static void update() {
-        // Clear the list of mouse buttons that were released and update it.
-        upMouse.clear();
-        for (int i = 0; i < NUM_MOUSEBUTTONS; i++) {
-            if (!getMouse(i) && currentMouse.contains(i)) {
-                upMouse.add(i); // Mouse button was just released.
-            }
-        }
-
-        // Clear the list of mouse buttons that were pressed and update it.
-        downMouse.clear();
-        for (int i = 0; i < NUM_MOUSEBUTTONS; i++) {
-            if (getMouse(i) && !currentMouse.contains(i)) {
-                downMouse.add(i); // Mouse button was just pressed.
-            }
+    public static void create() {
+        try {
+            Keyboard.create();
+            Mouse.create();
+            created = true;
+        } catch (LWJGLException e) {
+            e.printStackTrace();  // Print the stack trace if there's an issue creating the devices
         }
+    }
 
-        // Clear the list of keys that were released and update it.
-        upKeys.clear();
-        for (int i = 0; i < NUM_KEYCODES; i++) {
-            if (!getKey(i) && currentKeys.contains(i)) {
-                upKeys.add(i); // Key was just released.
-            }
-        }
+    /**
+     * Destroys the LWJGL keyboard and mouse.
+     */
+    public static void destroy() {
+        Keyboard.destroy();
+        Mouse.destroy();
+        created = false;
+    }
 
-        // Clear the list of keys that were pressed and update it.
-        downKeys.clear();
-        for (int i = 0; i < NUM_KEYCODES; i++) {
-            if (getKey(i) && !currentKeys.contains(i)) {
-                downKeys.add(i); // Key was just pressed.
-            }
+    // Creates the keyboard and mouse through the global registry the first time they are used
+    private static void ensureCreated() {
+        SubsystemRegistry registry = SubsystemRegistry.getGlobal();
+        if (!created && registry != null && registry.isRegistered(SUBSYSTEM)) {
+            registry.require(SUBSYSTEM);
         }
+    }
 
-        // Update the list of currently pressed keys.
-        currentKeys.clear();
+    /**
+     * Updates the state of the input (keyboard and mouse). 
+     * It polls LWJGL and works out which keys and mouse buttons were just pressed or were just released.
+     */
+    public static void update() {
+        ensureCreated();
         for (int i = 0; i < NUM_KEYCODES; i++) {
-            if (getKey(i)) {
-                currentKeys.add(i); // Key is currently pressed.
-            }
+            state.setKey(i, Keyboard.isKeyDown(i));
         }
 
-        // Update the list of currently pressed mouse buttons.
-        currentMouse.clear();
         for (int i = 0; i < NUM_MOUSEBUTTONS; i++) {
-            if (getMouse(i)) {
-                currentMouse.add(i); // Mouse button is currently pressed.
-            }
+            state.setMouse(i, Mouse.isButtonDown(i));
         }
+
+        state.setMousePosition(Mouse.getX(), Mouse.getY());
+        state.update();
+    }
+
+    /**
+     * Returns the input state the static accessors read from: the one of the engine instance
+     * ticking on this thread, or the LWJGL-backed state otherwise.
+     *
+     * @return The active InputState.
+     */
+    public static InputState getState() {
+        EngineContext context = EngineContext.current();
+        return context != null ? context.getInput() : state;
     }
 
     /**
@@ -84,6 +86,11 @@ public class Input {
      * @return True if the key is pressed, false otherwise.
      */
     public static boolean getKey(int keyCode) {
+        EngineContext context = EngineContext.current();
+        if (context != null) {
+            return context.getInput().getKey(keyCode);
+        }
+        ensureCreated();
         return Keyboard.isKeyDown(keyCode);
     }
 
@@ -94,7 +101,7 @@ public class Input {
      * @return True if the key was just pressed, false otherwise.
      */
     public static boolean getKeyDown(int keyCode) {
-        return downKeys.contains(keyCode);
+        return getState().getKeyDown(keyCode);
     }
 
     /**
@@ -104,7 +111,7 @@ public class Input {
      * @return True if the key was just released, false otherwise.
      */
     public static boolean getKeyUp(int keyCode) {
-        return upKeys.contains(keyCode);
+        return getState().getKeyUp(keyCode);
     }
 
     /**
@@ -114,6 +121,11 @@ public class Input {
      * @return True if the mouse button is pressed, false otherwise.
      */
     public static boolean getMouse(int mouseButton) {
+        EngineContext context = EngineContext.current();
+        if (context != null) {
+            return context.getInput().getMouse(mouseButton);
+        }
+        ensureCreated();
         return Mouse.isButtonDown(mouseButton);
     }
 
@@ -124,7 +136,7 @@ public class Input {
      * @return True if the mouse button was just pressed, false otherwise.
      */
     public static boolean getMouseDown(int mouseButton) {
-        return downMouse.contains(mouseButton);
+        return getState().getMouseDown(mouseButton);
     }
 
     /**
@@ -134,7 +146,7 @@ public class Input {
      * @return True if the mouse button was just released, false otherwise.
      */
     public static boolean getMouseUp(int mouseButton) {
-        return upMouse.contains(mouseButton);
+        return getState().getMouseUp(mouseButton);
     }
 
     /**
@@ -143,6 +155,6 @@ public class Input {
      * @return A Vector2f object representing the current X and Y coordinates of the mouse.
      */
     public static Vector2f getMousePosition() {
-        return new Vector2f(Mouse.getX(), Mouse.getY()); // Return the current mouse X and Y coordinates.
+        return getState().getMousePosition(); // Return the current mouse X and Y coordinates.
     }
 }
@@ -0,0 +1,142 @@
+package com.base.engine;
+
+/**
+ * The InputState class holds the keyboard and mouse state of a single engine instance.
+ * Raw key and button states are fed in through the setters, and update() turns them into
+ * "just pressed" and "just released" information for the current tick.
+ */
+public class InputState {
+    // Raw states as reported by the input source (LWJGL, network, a script, ...).
+    private final boolean[] keys = new boolean[Input.NUM_KEYCODES];
+    private final boolean[] mouse = new boolean[Input.NUM_MOUSEBUTTONS];
+
+    // States as seen by the game for the current tick.
+    private final boolean[] currentKeys = new boolean[Input.NUM_KEYCODES]; // Currently pressed keys.
+    private final boolean[] downKeys = new boolean[Input.NUM_KEYCODES]; // Keys that were just pressed.
+    private final boolean[] upKeys = new boolean[Input.NUM_KEYCODES]; // Keys that were just released.
+
+    private final boolean[] currentMouse = new boolean[Input.NUM_MOUSEBUTTONS]; // Currently pressed mouse buttons.
+    private final boolean[] downMouse = new boolean[Input.NUM_MOUSEBUTTONS]; // Mouse buttons that were just pressed.
+    private final boolean[] upMouse = new boolean[Input.NUM_MOUSEBUTTONS]; // Mouse buttons that were just released.
+
+    private float mouseX;
+    private float mouseY;
+
+    /**
+     * Updates the per-tick state from the raw states fed in since the last update.
+     * It works out which keys and mouse buttons were just pressed or just released.
+     */
+    public void update() {
+        for (int i = 0; i < Input.NUM_KEYCODES; i++) {
+            downKeys[i] = keys[i] && !currentKeys[i]; // Key was just pressed.
+            upKeys[i] = !keys[i] && currentKeys[i]; // Key was just released.
+            currentKeys[i] = keys[i];
+        }
+
+        for (int i = 0; i < Input.NUM_MOUSEBUTTONS; i++) {
+            downMouse[i] = mouse[i] && !currentMouse[i]; // Mouse button was just pressed.
+            upMouse[i] = !mouse[i] && currentMouse[i]; // Mouse button was just released.
+            currentMouse[i] = mouse[i];
+        }
+    }
+
+    /**
+     * Sets the raw state of a key. The change becomes visible to getKeyDown/getKeyUp after the next update().
+     *
+     * @param keyCode The key code of the key.
+     * @param pressed True if the key is held down.
+     */
+    public void setKey(int keyCode, boolean pressed) {
+        keys[keyCode] = pressed;
+    }
+
+    /**
+     * Sets the raw state of a mouse button. The change becomes visible after the next update().
+     *
+     * @param mouseButton The mouse button.
+     * @param pressed True if the button is held down.
+     */
+    public void setMouse(int mouseButton, boolean pressed) {
+        mouse[mouseButton] = pressed;
+    }
+
+    /**
+     * Sets the current position of the mouse cursor.
+     *
+     * @param x The X coordinate of the cursor.
+     * @param y The Y coordinate of the cursor.
+     */
+    public void setMousePosition(float x, float y) {
+        mouseX = x;
+        mouseY = y;
+    }
+
+    /**
+     * Checks if a specific key is currently pressed.
+     *
+     * @param keyCode The key code of the key to check.
+     * @return True if the key is pressed, false otherwise.
+     */
+    public boolean getKey(int keyCode) {
+        return keys[keyCode];
+    }
+
+    /**
+     * Checks if a specific key was just pressed down (not held).
+     *
+     * @param keyCode The key code of the key to check.
+     * @return True if the key was just pressed, false otherwise.
+     */
+    public boolean getKeyDown(int keyCode) {
+        return downKeys[keyCode];
+    }
+
+    /**
+     * Checks if a specific key was just released.
+     *
+     * @param keyCode The key code of the key to check.
+     * @return True if the key was just released, false otherwise.
+     */
+    public boolean getKeyUp(int keyCode) {
+        return upKeys[keyCode];
+    }
+
+    /**
+     * Checks if a specific mouse button is currently pressed.
+     *
+     * @param mouseButton The mouse button to check.
+     * @return True if the mouse button is pressed, false otherwise.
+     */
+    public boolean getMouse(int mouseButton) {
+        return mouse[mouseButton];
+    }
+
+    /**
+     * Checks if a specific mouse button was just pressed down (not held).
+     *
+     * @param mouseButton The mouse button to check.
+     * @return True if the mouse button was just pressed, false otherwise.
+     */
+    public boolean getMouseDown(int mouseButton) {
+        return downMouse[mouseButton];
+    }
+
+    /**
+     * Checks if a specific mouse button was just released.
+     *
+     * @param mouseButton The mouse button to check.
+     * @return True if the mouse button was just released, false otherwise.
+     */
+    public boolean getMouseUp(int mouseButton) {
+        return upMouse[mouseButton];
+    }
+
+    /**
+     * Returns the current position of the mouse cursor as a Vector2f object.
+     *
+     * @return A Vector2f object representing the current X and Y coordinates of the mouse.
+     */
+    public Vector2f getMousePosition() {
+        return new Vector2f(mouseX, mouseY);
+    }
+}
@@ -0,0 +1,19 @@
+package com.base.engine;
+
+/**
+ * Subsystem creating the LWJGL keyboard and mouse; depends on the window.
+ */
+public class InputSubsystem implements Subsystem {
+
+    public void init() {
+        Input.create();
+    }
+
+    public void dispose() {
+        Input.destroy();
+    }
+
+    public boolean requiresMainThread() {
+        return true;
+    }
+}
@@ -0,0 +1,90 @@
+package com.base.engine;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.Random;
+
+/**
+ * The LoopbackTransport class is an in-process stand-in for a network connection, used to run
+ * networking code without sockets. Packets are copied into pooled direct buffers and delivered
+ * in order; a share of them can be dropped to simulate packet loss. Not thread-safe.
+ */
+public class LoopbackTransport {
+    private final int maxPacketSize;
+    private final ArrayDeque<ByteBuffer> inFlight = new ArrayDeque<ByteBuffer>();
+    private final ArrayDeque<ByteBuffer> pool = new ArrayDeque<ByteBuffer>();
+    private final Random random = new Random(1);
+    private double lossRate;
+
+    private long sent;
+    private long dropped;
+    private long bytes;
+
+    /**
+     * Creates a transport.
+     *
+     * @param maxPacketSize The largest packet that can be sent, in bytes.
+     */
+    public LoopbackTransport(int maxPacketSize) {
+        this.maxPacketSize = maxPacketSize;
+    }
+
+    /**
+     * Sends the remaining bytes of a buffer as one packet. The buffer can be reused right away.
+     *
+     * @param packet The packet to send.
+     */
+    public void send(ByteBuffer packet) {
+        if (packet.remaining() > maxPacketSize) {
+            throw new IllegalArgumentException("Packet of " + packet.remaining() + " bytes exceeds the maximum of " + maxPacketSize);
+        }
+
+        sent++;
+        bytes += packet.remaining();
+        if (lossRate > 0 && random.nextDouble() < lossRate) {
+            dropped++;
+            packet.position(packet.limit());
+            return;
+        }
+
+        ByteBuffer copy = pool.isEmpty() ? ByteBuffer.allocateDirect(maxPacketSize) : pool.poll();
+        copy.clear();
+        copy.put(packet);
+        copy.flip();
+        inFlight.offer(copy);
+    }
+
+    /**
+     * Returns the next delivered packet. Hand it back with recycle() once it has been read.
+     *
+     * @return The packet, or null if none is waiting.
+     */
+    public ByteBuffer receive() {
+        return inFlight.poll();
+    }
+
+    // Returns a received packet's buffer to the pool
+    public void recycle(ByteBuffer packet) {
+        pool.offer(packet);
+    }
+
+    // Sets the share of packets (0 to 1) that are silently dropped
+    public void setLossRate(double lossRate) {
+        this.lossRate = lossRate;
+    }
+
+    // Returns the number of packets sent, including dropped ones
+    public long getSentCount() {
+        return sent;
+    }
+
+    // Returns the number of packets dropped
+    public long getDroppedCount() {
+        return dropped;
+    }
+
+    // Returns the number of bytes sent, including dropped packets
+    public long getSentBytes() {
+        return bytes;
+    }
+}
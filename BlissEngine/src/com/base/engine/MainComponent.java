@@ -7,14 +7,44 @@ public class MainComponent {
     public static final String TITLE = "Bliss Engine";
     public static final double FRAME_CAP = 5000.0;
 
+    // Constants for asset loading: cache size, loader threads and the time uploads may take per frame
+    public static final long ASSET_CACHE_SIZE = 256L * 1024 * 1024;
+    public static final int ASSET_LOADER_THREADS = 2;
+    public static final long ASSET_UPLOAD_BUDGET = Time.SECOND / 500;
+
+    // Time the tasks queued by other threads may take per tick
+    public static final long TASK_BUDGET = Time.SECOND / 500;
+
+    // -Dbliss.headless=true runs without a window or input, e.g. for a dedicated server
+    private static final boolean HEADLESS = Boolean.getBoolean("bliss.headless");
+    // -Dbliss.training.ticks=N stops after N ticks; used for the class data sharing training run
+    private static final int TRAINING_TICKS = Integer.getInteger("bliss.training.ticks", 0);
+
     // Instance variables to track game state
     private boolean isRunning;
     private Game game;
+    private AssetSubsystem assets;
+    private FrameProfiler profiler;
+    private MainThreadQueue tasks;
+    private SubsystemRegistry subsystems;
 
     // Constructor initializes the game and sets isRunning to false
     public MainComponent() {
         isRunning = false;
+        // Subsystems are only set up when first used, e.g. the window by the first Window call
+        subsystems = new SubsystemRegistry();
+        SubsystemRegistry.setGlobal(subsystems);
+        if (!HEADLESS) {
+            subsystems.register(Window.SUBSYSTEM, new WindowSubsystem(WIDTH, HEIGHT, TITLE));
+            subsystems.register(Input.SUBSYSTEM, new InputSubsystem(), Window.SUBSYSTEM);
+        }
+        // Registered after the window so it is disposed while the OpenGL context still exists
+        assets = new AssetSubsystem(subsystems, ASSET_CACHE_SIZE, ASSET_LOADER_THREADS);
+        subsystems.register(AssetSubsystem.NAME, assets);
+        tasks = new MainThreadQueue();
         game = new Game();
+        game.setAssets(assets);
+        game.setTasks(tasks);
     }
 
     // Method to start the game loop if it isn't already running
@@ -36,6 +66,16 @@ public class MainComponent {
     // Main game loop, handles updating and rendering the game
     private void run() {
         isRunning = true;
+        profiler = new FrameProfiler();  // Measures the loop thread when -Dbliss.profile=true
+
+        if (!HEADLESS) {
+            // A windowed run uses all of these; the asset manager is set up in the background
+            // while the window and input are created here
+            subsystems.initAll(Window.SUBSYSTEM, Input.SUBSYSTEM, AssetSubsystem.NAME);
+        }
+
+        int ticks = 0;  // Counts ticks for the training run
+        boolean startupReported = false;
 
         int frames = 0;  // Counts frames per second
         long frameCounter = 0;  // Tracks time to calculate FPS
@@ -61,15 +101,34 @@ public class MainComponent {
 
                 unprocessedTime -= frameTime;  // Decrease unprocessed time by frame time
 
-                if (Window.isCloseRequested()) {  // Check if the window should be closed
+                if (!HEADLESS && Window.isCloseRequested()) {  // Check if the window should be closed
                     stop();  // Stop the game loop if close is requested
                 }
+                if (TRAINING_TICKS > 0 && ++ticks >= TRAINING_TICKS) {
+                    stop();  // The training run is over
+                }
 
                 Time.setDelta(frameTime);  // Update the delta time
-                Input.update();
 
+                profiler.beginTick();
+                profiler.begin(FrameProfiler.Phase.TASKS);
+                tasks.drain(TASK_BUDGET);  // Run work handed over by other threads
+                profiler.end(FrameProfiler.Phase.TASKS);
+
+                if (!HEADLESS) {
+                    profiler.begin(FrameProfiler.Phase.INPUT_UPDATE);
+                    Input.update();
+                    profiler.end(FrameProfiler.Phase.INPUT_UPDATE);
+                }
+
+                profiler.begin(FrameProfiler.Phase.GAME_INPUT);
                 game.input();  // Handle game input
+                profiler.end(FrameProfiler.Phase.GAME_INPUT);
+
+                profiler.begin(FrameProfiler.Phase.GAME_UPDATE);
                 game.update();  // Update game state
+                profiler.end(FrameProfiler.Phase.GAME_UPDATE);
+                profiler.endTick();
 
                 // Print and reset the frame counter every second
                 if (frameCounter >= Time.SECOND) {
@@ -77,12 +136,30 @@ public class MainComponent {
                     frames = 0;
                     frameCounter = 0;
                 }
+
+                if (!isRunning) {
+                    break;  // Don't run the remaining catch-up ticks once stopped
+                }
             }
 
             // If rendering is needed, call the render method
             if (render) {
+                AssetManager manager = assets.getManagerIfCreated();
+                if (manager != null) {
+                    manager.update(ASSET_UPLOAD_BUDGET);  // Finish loaded assets within the frame budget
+                }
+
+                profiler.begin(FrameProfiler.Phase.RENDER);
                 render();
+                profiler.end(FrameProfiler.Phase.RENDER);
                 frames++;
+
+                if (!startupReported) {
+                    startupReported = true;
+                    StartupTimer.mark("first frame");
+                    StartupTimer.report();
+                    System.out.println("Subsystems: " + subsystems.report());
+                }
             }
 
             // If no rendering is needed, sleep for a short time to save CPU
@@ -96,23 +173,30 @@ public class MainComponent {
         }
 
         cleanUp();  // Clean up resources after the game loop ends
+
+        profiler.report();
+        profiler.checkBudget();  // Fails the run if a phase allocated more than -Dbliss.profile.budget bytes
     }
 
     // Method to render the game and the window
     private void render() {
+        if (HEADLESS) {
+            return;  // Nothing to draw to
+        }
         game.render();
         Window.render();
     }
 
     // Method to clean up resources, like disposing of the window
     private void cleanUp() {
-        Window.dispose();
+        subsystems.dispose();  // Disposes whatever subsystems were set up, in reverse order of registration
     }
 
     // Main method, entry point of the application
     public static void main(String[] args) {
-        Window.createWindow(WIDTH, HEIGHT, TITLE);  // Create the game window
+        StartupTimer.start();  // Time startup from here to the first frame
         MainComponent game = new MainComponent();  // Create an instance of MainComponent
+        StartupTimer.mark("engine");
         game.start();  // Start the game loop
     }
 }
@@ -0,0 +1,126 @@
+package com.base.engine;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+
+/**
+ * The MainThreadQueue class lets any thread hand work to the loop thread without blocking it.
+ * Tasks are queued in a lock-free multi-producer, single-consumer linked queue and run when the
+ * loop thread calls drain(), once per tick, within a time budget. Tasks not run within the budget
+ * stay queued for the next tick, in order.
+ *
+ * Any number of threads may call execute() and submit(); only the loop thread may call drain().
+ */
+public class MainThreadQueue implements Executor {
+
+    // A queued task; next is set by the producer that enqueued the following node
+    // (the fields aren't private so the field updater can reach them)
+    private static final class Node {
+        Runnable task;
+        volatile Node next;
+
+        private Node(Runnable task) {
+            this.task = task;
+        }
+    }
+
+    private static final AtomicReferenceFieldUpdater<Node, Node> NEXT =
+            AtomicReferenceFieldUpdater.newUpdater(Node.class, Node.class, "next");
+
+    // Last node, swapped by producers
+    private final AtomicReference<Node> tail;
+    // Node before the first queued task, only touched by the consumer
+    private Node head;
+
+    public MainThreadQueue() {
+        Node stub = new Node(null);
+        head = stub;
+        tail = new AtomicReference<Node>(stub);
+    }
+
+    /**
+     * Queues a task to run on the loop thread. Never blocks.
+     *
+     * @param task The task to run.
+     */
+    public void execute(Runnable task) {
+        if (task == null) {
+            throw new NullPointerException("task");
+        }
+
+        Node node = new Node(task);
+        Node previous = tail.getAndSet(node);
+        // Until this link is written the consumer sees the queue end at previous, which is fine
+        NEXT.lazySet(previous, node);
+    }
+
+    /**
+     * Queues a task to run on the loop thread and returns a future of its result.
+     *
+     * @param task The task to run.
+     * @return A future completed on the loop thread with the task's result or exception.
+     */
+    public <T> CompletableFuture<T> submit(final Callable<T> task) {
+        final CompletableFuture<T> future = new CompletableFuture<T>();
+        execute(() -> {
+            if (future.isCancelled()) {
+                return;
+            }
+            try {
+                future.complete(task.call());
+            } catch (Exception e) {
+                future.completeExceptionally(e);
+            }
+        });
+        return future;
+    }
+
+    /**
+     * Runs queued tasks on the calling (loop) thread until the queue is empty or the budget
+     * is used up. At least one task is run per call so the queue always makes progress.
+     *
+     * @param budget The time to spend, in nanoseconds.
+     * @return The number of tasks run.
+     */
+    public int drain(long budget) {
+        long start = Time.getTime();
+        int ran = 0;
+
+        Runnable task;
+        while ((task = poll()) != null) {
+            try {
+                task.run();
+            } catch (RuntimeException e) {
+                // A failing task must not take the loop down with it
+                e.printStackTrace();
+            }
+            ran++;
+
+            if (Time.getTime() - start >= budget) {
+                break;
+            }
+        }
+        return ran;
+    }
+
+    // Returns true if no task is visible to the consumer; only meaningful on the loop thread
+    public boolean isEmpty() {
+        return head.next == null;
+    }
+
+    // Removes the first task, or returns null if none is visible yet
+    private Runnable poll() {
+        Node next = head.next;
+        if (next == null) {
+            return null;
+        }
+
+        Runnable task = next.task;
+        next.task = null;  // next becomes the new stub; don't keep the task reachable
+        head = next;
+        return task;
+    }
+}
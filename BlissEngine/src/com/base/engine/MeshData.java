@@ -0,0 +1,154 @@
+package com.base.engine;
+
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.nio.ShortBuffer;
+
+/**
+ * The MeshData class holds the vertex and index data of a mesh in buffers that can be handed
+ * straight to OpenGL. Attributes are stored in separate blocks rather than interleaved:
+ * positions as 3 floats per vertex, normals as 3 floats or 3 normalized shorts, texture
+ * coordinates as 2 floats or 2 normalized unsigned shorts relative to the UV bounds.
+ */
+public class MeshData {
+    private final int vertexCount;
+    private final int indexCount;
+
+    private final FloatBuffer positions;
+    private final FloatBuffer normals;
+    private final ShortBuffer quantizedNormals;
+    private final FloatBuffer uvs;
+    private final ShortBuffer quantizedUvs;
+    private final IntBuffer indices;
+
+    // Range the quantized texture coordinates map back onto
+    private final Vector2f uvMin;
+    private final Vector2f uvMax;
+
+    /**
+     * Creates a mesh from full-precision attributes.
+     *
+     * @param positions The vertex positions, 3 floats per vertex.
+     * @param normals The vertex normals, 3 floats per vertex, or null.
+     * @param uvs The texture coordinates, 2 floats per vertex, or null.
+     * @param indices The triangle indices.
+     */
+    public MeshData(FloatBuffer positions, FloatBuffer normals, FloatBuffer uvs, IntBuffer indices) {
+        this(positions, normals, null, uvs, null, new Vector2f(0, 0), new Vector2f(1, 1), indices);
+    }
+
+    MeshData(FloatBuffer positions, FloatBuffer normals, ShortBuffer quantizedNormals,
+             FloatBuffer uvs, ShortBuffer quantizedUvs, Vector2f uvMin, Vector2f uvMax, IntBuffer indices) {
+        this.vertexCount = positions.remaining() / 3;
+        this.indexCount = indices.remaining();
+        this.positions = positions;
+        this.normals = normals;
+        this.quantizedNormals = quantizedNormals;
+        this.uvs = uvs;
+        this.quantizedUvs = quantizedUvs;
+        this.uvMin = uvMin;
+        this.uvMax = uvMax;
+        this.indices = indices;
+    }
+
+    /**
+     * Returns the position of a vertex.
+     *
+     * @param i The index of the vertex.
+     * @return The position as a new Vector3f.
+     */
+    public Vector3f getPosition(int i) {
+        int p = positions.position() + i * 3;
+        return new Vector3f(positions.get(p), positions.get(p + 1), positions.get(p + 2));
+    }
+
+    /**
+     * Returns the normal of a vertex, dequantizing it if needed.
+     *
+     * @param i The index of the vertex.
+     * @return The normal as a new Vector3f, or null if the mesh has no normals.
+     */
+    public Vector3f getNormal(int i) {
+        if (normals != null) {
+            int p = normals.position() + i * 3;
+            return new Vector3f(normals.get(p), normals.get(p + 1), normals.get(p + 2));
+        }
+        if (quantizedNormals != null) {
+            int p = quantizedNormals.position() + i * 3;
+            return new Vector3f(MeshFormat.decodeSnorm(quantizedNormals.get(p)),
+                                MeshFormat.decodeSnorm(quantizedNormals.get(p + 1)),
+                                MeshFormat.decodeSnorm(quantizedNormals.get(p + 2)));
+        }
+        return null;
+    }
+
+    /**
+     * Returns the texture coordinates of a vertex, dequantizing them if needed.
+     *
+     * @param i The index of the vertex.
+     * @return The texture coordinates as a new Vector2f, or null if the mesh has none.
+     */
+    public Vector2f getUv(int i) {
+        if (uvs != null) {
+            int p = uvs.position() + i * 2;
+            return new Vector2f(uvs.get(p), uvs.get(p + 1));
+        }
+        if (quantizedUvs != null) {
+            int p = quantizedUvs.position() + i * 2;
+            return new Vector2f(MeshFormat.decodeUnorm(quantizedUvs.get(p), uvMin.getX(), uvMax.getX()),
+                                MeshFormat.decodeUnorm(quantizedUvs.get(p + 1), uvMin.getY(), uvMax.getY()));
+        }
+        return null;
+    }
+
+    // Returns the number of vertices
+    public int getVertexCount() {
+        return vertexCount;
+    }
+
+    // Returns the number of indices (three per triangle)
+    public int getIndexCount() {
+        return indexCount;
+    }
+
+    // Returns the vertex positions, 3 floats per vertex
+    public FloatBuffer getPositions() {
+        return positions;
+    }
+
+    // Returns the full-precision normals, or null if the mesh has none or they are quantized
+    public FloatBuffer getNormals() {
+        return normals;
+    }
+
+    // Returns the normals as normalized shorts (GL_SHORT, normalized), or null if not quantized
+    public ShortBuffer getQuantizedNormals() {
+        return quantizedNormals;
+    }
+
+    // Returns the full-precision texture coordinates, or null if the mesh has none or they are quantized
+    public FloatBuffer getUvs() {
+        return uvs;
+    }
+
+    // Returns the texture coordinates as normalized unsigned shorts (GL_UNSIGNED_SHORT, normalized)
+    // relative to getUvMin()/getUvMax(), or null if not quantized
+    public ShortBuffer getQuantizedUvs() {
+        return quantizedUvs;
+    }
+
+    // Returns the lower bound of the quantized texture coordinates
+    public Vector2f getUvMin() {
+        return uvMin;
+    }
+
+    // Returns the upper bound of the quantized texture coordinates
+    public Vector2f getUvMax() {
+        return uvMax;
+    }
+
+    // Returns the triangle indices
+    public IntBuffer getIndices() {
+        return indices;
+    }
+}
@@ -0,0 +1,264 @@
+package com.base.engine;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.nio.ShortBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * The MeshFormat class reads and writes the engine's binary mesh files (.bmesh).
+ *
+ * A file starts with a 64 byte little-endian header:
+ *
+ *   0  magic "BMSH"           20 uvMin x, y (floats)
+ *   4  version                28 uvMax x, y (floats)
+ *   8  flags                  36 offset of the positions block
+ *   12 vertex count           40 offset of the normals block (0 if absent)
+ *   16 index count            44 offset of the texture coordinate block (0 if absent)
+ *                             48 offset of the index block
+ *
+ * followed by the blocks, each aligned to 16 bytes. Because every block is a plain array in
+ * OpenGL's own layout, reading a file only creates buffer views over the (memory-mapped)
+ * data; nothing is copied into Java arrays.
+ */
+public class MeshFormat {
+    public static final int MAGIC = 0x48534D42; // "BMSH" in little-endian order
+    public static final int VERSION = 1;
+    public static final int HEADER_SIZE = 64;
+
+    // Flags describing which attributes are present and how they are stored
+    public static final int HAS_NORMALS = 1;
+    public static final int HAS_UVS = 2;
+    public static final int QUANTIZED_NORMALS = 4;
+    public static final int QUANTIZED_UVS = 8;
+
+    private static final int ALIGNMENT = 16;
+
+    /**
+     * Memory-maps a mesh file and reads it without copying.
+     *
+     * @param path The file to load.
+     * @return The mesh, backed by the mapped file.
+     * @throws IOException If the file can't be read or isn't a valid mesh file.
+     */
+    public static MeshData load(String path) throws IOException {
+        try (FileChannel channel = FileChannel.open(Paths.get(path), StandardOpenOption.READ)) {
+            return read(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * Reads a mesh from the contents of a mesh file. The returned buffers are views of the data.
+     *
+     * @param data The file contents, starting at the header.
+     * @return The mesh.
+     * @throws IOException If the data isn't a valid mesh file.
+     */
+    public static MeshData read(ByteBuffer data) throws IOException {
+        ByteBuffer header = data.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        if (header.remaining() < HEADER_SIZE) {
+            throw new IOException("Mesh file too short for its header: " + header.remaining() + " bytes");
+        }
+
+        int base = header.position();
+        if (header.getInt(base) != MAGIC) {
+            throw new IOException("Not a mesh file");
+        }
+        if (header.getInt(base + 4) != VERSION) {
+            throw new IOException("Unsupported mesh file version " + header.getInt(base + 4));
+        }
+
+        int flags = header.getInt(base + 8);
+        int vertexCount = header.getInt(base + 12);
+        int indexCount = header.getInt(base + 16);
+        Vector2f uvMin = new Vector2f(header.getFloat(base + 20), header.getFloat(base + 24));
+        Vector2f uvMax = new Vector2f(header.getFloat(base + 28), header.getFloat(base + 32));
+
+        FloatBuffer positions = block(header, header.getInt(base + 36), vertexCount * 3 * 4).asFloatBuffer();
+        IntBuffer indices = block(header, header.getInt(base + 48), indexCount * 4).asIntBuffer();
+
+        FloatBuffer normals = null;
+        ShortBuffer quantizedNormals = null;
+        if ((flags & HAS_NORMALS) != 0) {
+            int offset = header.getInt(base + 40);
+            if ((flags & QUANTIZED_NORMALS) != 0) {
+                quantizedNormals = block(header, offset, vertexCount * 3 * 2).asShortBuffer();
+            } else {
+                normals = block(header, offset, vertexCount * 3 * 4).asFloatBuffer();
+            }
+        }
+
+        FloatBuffer uvs = null;
+        ShortBuffer quantizedUvs = null;
+        if ((flags & HAS_UVS) != 0) {
+            int offset = header.getInt(base + 44);
+            if ((flags & QUANTIZED_UVS) != 0) {
+                quantizedUvs = block(header, offset, vertexCount * 2 * 2).asShortBuffer();
+            } else {
+                uvs = block(header, offset, vertexCount * 2 * 4).asFloatBuffer();
+            }
+        }
+
+        return new MeshData(positions, normals, quantizedNormals, uvs, quantizedUvs, uvMin, uvMax, indices);
+    }
+
+    /**
+     * Writes a mesh to a file.
+     *
+     * @param mesh The mesh to write.
+     * @param path The file to write to.
+     * @param quantize True to store normals and texture coordinates as 16-bit integers.
+     * @throws IOException If the file can't be written.
+     */
+    public static void write(MeshData mesh, String path, boolean quantize) throws IOException {
+        ByteBuffer data = encode(mesh, quantize);
+        try (FileChannel channel = FileChannel.open(Paths.get(path), StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            while (data.hasRemaining()) {
+                channel.write(data);
+            }
+        }
+    }
+
+    /**
+     * Encodes a mesh into the contents of a mesh file.
+     *
+     * @param mesh The mesh to encode.
+     * @param quantize True to store normals and texture coordinates as 16-bit integers.
+     * @return A direct buffer holding the file contents, ready to be read.
+     */
+    public static ByteBuffer encode(MeshData mesh, boolean quantize) {
+        int vertexCount = mesh.getVertexCount();
+        boolean hasNormals = mesh.getNormals() != null || mesh.getQuantizedNormals() != null;
+        boolean hasUvs = mesh.getUvs() != null || mesh.getQuantizedUvs() != null;
+
+        int flags = 0;
+        if (hasNormals) {
+            flags |= HAS_NORMALS | (quantize ? QUANTIZED_NORMALS : 0);
+        }
+        if (hasUvs) {
+            flags |= HAS_UVS | (quantize ? QUANTIZED_UVS : 0);
+        }
+
+        // Lay out the blocks one after another, each on an aligned offset
+        int positionsOffset = HEADER_SIZE;
+        int normalsOffset = hasNormals ? align(positionsOffset + vertexCount * 3 * 4) : 0;
+        int normalsEnd = hasNormals ? normalsOffset + vertexCount * 3 * (quantize ? 2 : 4) : positionsOffset + vertexCount * 3 * 4;
+        int uvsOffset = hasUvs ? align(normalsEnd) : 0;
+        int uvsEnd = hasUvs ? uvsOffset + vertexCount * 2 * (quantize ? 2 : 4) : normalsEnd;
+        int indicesOffset = align(uvsEnd);
+        int size = indicesOffset + mesh.getIndexCount() * 4;
+
+        // Work out the range the quantized texture coordinates are stored in
+        Vector2f uvMin = new Vector2f(0, 0);
+        Vector2f uvMax = new Vector2f(1, 1);
+        if (hasUvs && quantize) {
+            uvMin = new Vector2f(Float.MAX_VALUE, Float.MAX_VALUE);
+            uvMax = new Vector2f(-Float.MAX_VALUE, -Float.MAX_VALUE);
+            for (int i = 0; i < vertexCount; i++) {
+                Vector2f uv = mesh.getUv(i);
+                uvMin = new Vector2f(Math.min(uvMin.getX(), uv.getX()), Math.min(uvMin.getY(), uv.getY()));
+                uvMax = new Vector2f(Math.max(uvMax.getX(), uv.getX()), Math.max(uvMax.getY(), uv.getY()));
+            }
+        }
+
+        ByteBuffer data = ByteBuffer.allocateDirect(size).order(ByteOrder.LITTLE_ENDIAN);
+        data.putInt(0, MAGIC);
+        data.putInt(4, VERSION);
+        data.putInt(8, flags);
+        data.putInt(12, vertexCount);
+        data.putInt(16, mesh.getIndexCount());
+        data.putFloat(20, uvMin.getX());
+        data.putFloat(24, uvMin.getY());
+        data.putFloat(28, uvMax.getX());
+        data.putFloat(32, uvMax.getY());
+        data.putInt(36, positionsOffset);
+        data.putInt(40, normalsOffset);
+        data.putInt(44, uvsOffset);
+        data.putInt(48, indicesOffset);
+
+        data.position(positionsOffset);
+        data.asFloatBuffer().put(mesh.getPositions().duplicate());
+
+        if (hasNormals) {
+            data.position(normalsOffset);
+            for (int i = 0; i < vertexCount; i++) {
+                Vector3f normal = mesh.getNormal(i);
+                if (quantize) {
+                    data.putShort(encodeSnorm(normal.getX()));
+                    data.putShort(encodeSnorm(normal.getY()));
+                    data.putShort(encodeSnorm(normal.getZ()));
+                } else {
+                    data.putFloat(normal.getX());
+                    data.putFloat(normal.getY());
+                    data.putFloat(normal.getZ());
+                }
+            }
+        }
+
+        if (hasUvs) {
+            data.position(uvsOffset);
+            for (int i = 0; i < vertexCount; i++) {
+                Vector2f uv = mesh.getUv(i);
+                if (quantize) {
+                    data.putShort(encodeUnorm(uv.getX(), uvMin.getX(), uvMax.getX()));
+                    data.putShort(encodeUnorm(uv.getY(), uvMin.getY(), uvMax.getY()));
+                } else {
+                    data.putFloat(uv.getX());
+                    data.putFloat(uv.getY());
+                }
+            }
+        }
+
+        data.position(indicesOffset);
+        data.asIntBuffer().put(mesh.getIndices().duplicate());
+
+        data.position(0);
+        return data;
+    }
+
+    // Quantizes a value in [-1, 1] to a normalized signed short
+    static short encodeSnorm(float value) {
+        return (short) Math.round(Math.max(-1.0f, Math.min(1.0f, value)) * Short.MAX_VALUE);
+    }
+
+    // Converts a normalized signed short back to [-1, 1], matching OpenGL's conversion
+    static float decodeSnorm(short value) {
+        return Math.max(value / (float) Short.MAX_VALUE, -1.0f);
+    }
+
+    // Quantizes a value in [min, max] to a normalized unsigned short
+    static short encodeUnorm(float value, float min, float max) {
+        float range = max - min;
+        float t = range > 0 ? (value - min) / range : 0;
+        return (short) Math.round(Math.max(0.0f, Math.min(1.0f, t)) * 0xFFFF);
+    }
+
+    // Converts a normalized unsigned short back to [min, max]
+    static float decodeUnorm(short value, float min, float max) {
+        return min + (value & 0xFFFF) / (float) 0xFFFF * (max - min);
+    }
+
+    // Returns a little-endian view of a block of the file, checking that it lies within the data
+    private static ByteBuffer block(ByteBuffer data, int offset, int length) throws IOException {
+        int start = data.position() + offset;
+        if (offset < HEADER_SIZE || length < 0 || start + length > data.limit()) {
+            throw new IOException("Mesh file block out of bounds: offset " + offset + ", length " + length);
+        }
+
+        ByteBuffer block = data.duplicate();
+        block.position(start);
+        block.limit(start + length);
+        return block.slice().order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    // Rounds an offset up to the block alignment
+    private static int align(int offset) {
+        return (offset + ALIGNMENT - 1) & -ALIGNMENT;
+    }
+}
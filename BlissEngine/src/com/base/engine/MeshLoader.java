@@ -0,0 +1,40 @@
+package com.base.engine;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * The MeshLoader class loads binary mesh files (.bmesh) through the AssetManager.
+ * The decoded MeshData is a set of views over the loaded file, so decoding does no copying.
+ */
+public class MeshLoader implements AssetLoader<MeshData> {
+
+    public MeshData decode(String path, ByteBuffer data) throws IOException {
+        return MeshFormat.read(data);
+    }
+
+    public long getSize(MeshData mesh) {
+        long size = mesh.getPositions().capacity() * 4L + mesh.getIndices().capacity() * 4L;
+        if (mesh.getNormals() != null) {
+            size += mesh.getNormals().capacity() * 4L;
+        }
+        if (mesh.getQuantizedNormals() != null) {
+            size += mesh.getQuantizedNormals().capacity() * 2L;
+        }
+        if (mesh.getUvs() != null) {
+            size += mesh.getUvs().capacity() * 4L;
+        }
+        if (mesh.getQuantizedUvs() != null) {
+            size += mesh.getQuantizedUvs().capacity() * 2L;
+        }
+        return MeshFormat.HEADER_SIZE + size;
+    }
+
+    public void upload(MeshData mesh) {
+        // There is no GPU mesh type yet; the buffers are ready to be passed to glBufferData as they are
+    }
+
+    public void dispose(MeshData mesh) {
+        // The buffers are released together with the file data once the mesh is no longer referenced
+    }
+}
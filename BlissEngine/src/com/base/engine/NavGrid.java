@@ -0,0 +1,100 @@
+package com.base.engine;
+
+/**
+ * The NavGrid class is a walkability grid laid over the world for pathfinding. Cells are
+ * square, cellSize world units wide, starting at the origin. In 3D the grid lies in the XZ plane.
+ * Every change bumps the version, which invalidates cached paths.
+ */
+public class NavGrid {
+    private final int width;
+    private final int height;
+    private final float cellSize;
+    private final float originX;
+    private final float originY;
+    private final boolean[] blocked;
+    private int version;
+
+    /**
+     * Creates a grid with every cell walkable.
+     *
+     * @param width The number of cells along X.
+     * @param height The number of cells along Y (Z in 3D).
+     * @param cellSize The size of a cell in world units.
+     * @param origin The world position of the corner of cell (0, 0).
+     */
+    public NavGrid(int width, int height, float cellSize, Vector2f origin) {
+        this.width = width;
+        this.height = height;
+        this.cellSize = cellSize;
+        this.originX = origin.getX();
+        this.originY = origin.getY();
+        this.blocked = new boolean[width * height];
+    }
+
+    // Marks a cell as blocked or walkable
+    public void setBlocked(int x, int y, boolean isBlocked) {
+        if (blocked[y * width + x] != isBlocked) {
+            blocked[y * width + x] = isBlocked;
+            version++;
+        }
+    }
+
+    // Returns true if the cell lies within the grid and isn't blocked
+    public boolean isWalkable(int x, int y) {
+        return x >= 0 && y >= 0 && x < width && y < height && !blocked[y * width + x];
+    }
+
+    // Returns true if the cell with the given index isn't blocked
+    boolean isWalkable(int cell) {
+        return !blocked[cell];
+    }
+
+    /**
+     * Returns the index of the cell containing a position.
+     *
+     * @param position The position in the plane of the grid.
+     * @return The cell index, or -1 if the position lies outside the grid.
+     */
+    public int cellAt(Vector2f position) {
+        return cellAt(position.getX(), position.getY());
+    }
+
+    // Returns the index of the cell containing a position in the XZ plane, or -1 if outside
+    public int cellAt(Vector3f position) {
+        return cellAt(position.getX(), position.getZ());
+    }
+
+    private int cellAt(float px, float py) {
+        int x = (int) Math.floor((px - originX) / cellSize);
+        int y = (int) Math.floor((py - originY) / cellSize);
+        if (x < 0 || y < 0 || x >= width || y >= height) {
+            return -1;
+        }
+        return y * width + x;
+    }
+
+    // Returns the world position of the center of a cell
+    public Vector2f centerOf(int cell) {
+        return new Vector2f(originX + (cell % width + 0.5f) * cellSize, originY + (cell / width + 0.5f) * cellSize);
+    }
+
+    // Returns the number of cells along X
+    public int getWidth() {
+        return width;
+    }
+
+    // Returns the number of cells along Y
+    public int getHeight() {
+        return height;
+    }
+
+    // Returns the total number of cells
+    public int getCellCount() {
+        return width * height;
+    }
+
+    // Returns a counter that changes whenever the walkability of a cell changes
+    public int getVersion() {
+        return version;
+    }
+}
@@ -0,0 +1,159 @@
+package com.base.engine;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+
+/**
+ * The ObjConverter class is an offline tool that converts Wavefront OBJ files into binary mesh
+ * files, so the game never has to parse text at load time.
+ *
+ * Usage: ObjConverter [-q] input.obj output.bmesh
+ * where -q stores normals and texture coordinates quantized to 16 bits.
+ */
+public class ObjConverter {
+
+    /**
+     * Parses an OBJ file into a mesh. Polygons are triangulated as fans, and every distinct
+     * position/texture coordinate/normal combination becomes one vertex.
+     *
+     * @param path The OBJ file to read.
+     * @return The parsed mesh.
+     * @throws IOException If the file can't be read or is malformed.
+     */
+    public static MeshData parse(String path) throws IOException {
+        ArrayList<Vector3f> positions = new ArrayList<Vector3f>();
+        ArrayList<Vector2f> uvs = new ArrayList<Vector2f>();
+        ArrayList<Vector3f> normals = new ArrayList<Vector3f>();
+
+        // Output vertices as resolved {v, vt, vn} list indices (-1 if absent), deduplicated by reference
+        HashMap<String, Integer> vertexIndices = new HashMap<String, Integer>();
+        ArrayList<int[]> vertices = new ArrayList<int[]>();
+        ArrayList<Integer> indices = new ArrayList<Integer>();
+
+        try (BufferedReader reader = Files.newBufferedReader(Paths.get(path), StandardCharsets.UTF_8)) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                String[] tokens = line.trim().split("\\s+");
+
+                try {
+                    if (tokens[0].equals("v")) {
+                        positions.add(new Vector3f(Float.parseFloat(tokens[1]), Float.parseFloat(tokens[2]), Float.parseFloat(tokens[3])));
+                    } else if (tokens[0].equals("vt")) {
+                        uvs.add(new Vector2f(Float.parseFloat(tokens[1]), Float.parseFloat(tokens[2])));
+                    } else if (tokens[0].equals("vn")) {
+                        normals.add(new Vector3f(Float.parseFloat(tokens[1]), Float.parseFloat(tokens[2]), Float.parseFloat(tokens[3])));
+                    } else if (tokens[0].equals("f")) {
+                        int[] face = new int[tokens.length - 1];
+                        for (int i = 1; i < tokens.length; i++) {
+                            // Resolve the references now, since negative ones are relative to this line
+                            String[] refs = tokens[i].split("/");
+                            int[] vertex = new int[] {
+                                resolve(refs[0], positions.size(), path),
+                                refs.length > 1 && !refs[1].isEmpty() ? resolve(refs[1], uvs.size(), path) : -1,
+                                refs.length > 2 && !refs[2].isEmpty() ? resolve(refs[2], normals.size(), path) : -1
+                            };
+
+                            String key = vertex[0] + "/" + vertex[1] + "/" + vertex[2];
+                            Integer index = vertexIndices.get(key);
+                            if (index == null) {
+                                index = vertices.size();
+                                vertexIndices.put(key, index);
+                                vertices.add(vertex);
+                            }
+                            face[i - 1] = index;
+                        }
+
+                        // Triangulate the polygon as a fan around its first vertex
+                        for (int i = 1; i < face.length - 1; i++) {
+                            indices.add(face[0]);
+                            indices.add(face[i]);
+                            indices.add(face[i + 1]);
+                        }
+                    }
+                } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+                    throw new IOException(path + ":" + lineNumber + ": malformed line: " + line, e);
+                }
+            }
+        }
+
+        boolean hasUvs = !uvs.isEmpty();
+        boolean hasNormals = !normals.isEmpty();
+
+        FloatBuffer positionData = FloatBuffer.allocate(vertices.size() * 3);
+        FloatBuffer uvData = hasUvs ? FloatBuffer.allocate(vertices.size() * 2) : null;
+        FloatBuffer normalData = hasNormals ? FloatBuffer.allocate(vertices.size() * 3) : null;
+
+        for (int[] vertex : vertices) {
+            Vector3f position = positions.get(vertex[0]);
+            positionData.put(position.getX()).put(position.getY()).put(position.getZ());
+
+            if (hasUvs) {
+                Vector2f uv = vertex[1] >= 0 ? uvs.get(vertex[1]) : new Vector2f(0, 0);
+                uvData.put(uv.getX()).put(uv.getY());
+            }
+
+            if (hasNormals) {
+                Vector3f normal = vertex[2] >= 0 ? normals.get(vertex[2]) : new Vector3f(0, 0, 0);
+                normalData.put(normal.getX()).put(normal.getY()).put(normal.getZ());
+            }
+        }
+
+        IntBuffer indexData = IntBuffer.allocate(indices.size());
+        for (int index : indices) {
+            indexData.put(index);
+        }
+
+        positionData.flip();
+        indexData.flip();
+        if (hasUvs) {
+            uvData.flip();
+        }
+        if (hasNormals) {
+            normalData.flip();
+        }
+
+        return new MeshData(positionData, normalData, uvData, indexData);
+    }
+
+    // Turns a 1-based (or negative, relative) OBJ reference into a list index
+    private static int resolve(String ref, int count, String path) throws IOException {
+        int index;
+        try {
+            index = Integer.parseInt(ref);
+        } catch (NumberFormatException e) {
+            throw new IOException(path + ": malformed reference " + ref, e);
+        }
+
+        int resolved = index < 0 ? count + index : index - 1;
+        if (resolved < 0 || resolved >= count) {
+            throw new IOException(path + ": reference " + ref + " out of range");
+        }
+        return resolved;
+    }
+
+    public static void main(String[] args) throws IOException {
+        boolean quantize = args.length == 3 && args[0].equals("-q");
+        if (args.length != (quantize ? 3 : 2)) {
+            System.err.println("Usage: ObjConverter [-q] input.obj output.bmesh");
+            System.exit(1);
+        }
+
+        String input = args[args.length - 2];
+        String output = args[args.length - 1];
+
+        MeshData mesh = parse(input);
+        MeshFormat.write(mesh, output, quantize);
+
+        System.out.println("Wrote " + output + ": " + mesh.getVertexCount() + " vertices, "
+                           + mesh.getIndexCount() / 3 + " triangles" + (quantize ? " (quantized)" : ""));
+    }
+}
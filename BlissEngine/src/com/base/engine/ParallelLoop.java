@@ -0,0 +1,81 @@
+package com.base.engine;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Runs a loop over [0, count) as fixed-size chunks in parallel on the common fork/join pool.
+ * The chunk tasks are created once and reinitialized on every run, so unlike a parallel stream
+ * a run builds no pipeline, spliterator or lambda; once the loop has seen its largest count,
+ * only the pool's own bookkeeping may occasionally allocate.
+ *
+ * A ParallelLoop must not be run by two threads at the same time.
+ */
+abstract class ParallelLoop {
+    private final int chunkSize;
+    private final Root root = new Root();
+    private Chunk[] chunks = new Chunk[0];
+    private int chunkCount;
+    private int count;
+
+    ParallelLoop(int chunkSize) {
+        this.chunkSize = chunkSize;
+    }
+
+    // Processes the elements in [start, end); called concurrently for different ranges
+    protected abstract void run(int start, int end);
+
+    /**
+     * Runs the loop over [0, count) and returns once every chunk is done.
+     *
+     * @param count The number of elements.
+     */
+    void invoke(int count) {
+        int needed = (count + chunkSize - 1) / chunkSize;
+        if (chunks.length < needed) {
+            int old = chunks.length;
+            chunks = Arrays.copyOf(chunks, needed);
+            for (int i = old; i < needed; i++) {
+                chunks[i] = new Chunk(i);
+            }
+        }
+
+        this.count = count;
+        this.chunkCount = needed;
+        root.reinitialize();
+        ForkJoinPool.commonPool().invoke(root);
+    }
+
+    // Forks all chunks but the first, runs that one itself, then waits for the others
+    private class Root extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        protected void compute() {
+            for (int i = 1; i < chunkCount; i++) {
+                chunks[i].reinitialize();
+                chunks[i].fork();
+            }
+            if (chunkCount > 0) {
+                chunks[0].compute();
+            }
+            for (int i = 1; i < chunkCount; i++) {
+                chunks[i].join();
+            }
+        }
+    }
+
+    private class Chunk extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        private final int index;
+
+        private Chunk(int index) {
+            this.index = index;
+        }
+
+        protected void compute() {
+            int start = index * chunkSize;
+            run(start, Math.min(start + chunkSize, count));
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.base.engine;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Headless benchmark for ParticleEmitter: keeps an emitter full and measures the time per frame
+ * spent updating it and writing its vertex stream.
+ *
+ * Usage: ParticleBenchmark [particles] [frames]
+ */
+public class ParticleBenchmark {
+
+    public static void main(String[] args) {
+        int particles = args.length > 0 ? Integer.parseInt(args[0]) : 1000000;
+        int frames = args.length > 1 ? Integer.parseInt(args[1]) : 300;
+        float dt = 1.0f / 60.0f;
+
+        ParticleEmitter emitter = new ParticleEmitter(particles);
+        emitter.setLifetime(4);
+        emitter.setVelocity(new Vector3f(0, 5, 0));
+        emitter.setSpread(2);
+        ByteBuffer vertices = ByteBuffer.allocateDirect(particles * ParticleEmitter.VERTEX_SIZE).order(ByteOrder.nativeOrder());
+        emitter.emit(particles);
+
+        // Warm up so the JIT has compiled the hot loops before measuring
+        for (int i = 0; i < frames / 2; i++) {
+            frame(emitter, vertices, dt);
+        }
+
+        long updateTime = 0;
+        long writeTime = 0;
+        long liveTotal = 0;
+        for (int i = 0; i < frames; i++) {
+            emitter.emit(particles - emitter.getCount());  // Refill what died last frame
+
+            long start = Time.getTime();
+            emitter.update(dt);
+            long updated = Time.getTime();
+            vertices.clear();
+            emitter.writeVertices(vertices);
+            long written = Time.getTime();
+
+            updateTime += updated - start;
+            writeTime += written - updated;
+            liveTotal += emitter.getCount();
+        }
+
+        System.out.println(String.format("%d particles (avg %d live), %d frames, %d cores", particles, liveTotal / frames,
+                                         frames, Runtime.getRuntime().availableProcessors()));
+        System.out.println(String.format("update: %.3f ms/frame, write: %.3f ms/frame",
+                                         updateTime / (double) frames / 1e6, writeTime / (double) frames / 1e6));
+    }
+
+    private static void frame(ParticleEmitter emitter, ByteBuffer vertices, float dt) {
+        emitter.emit(emitter.getCapacity() - emitter.getCount());
+        emitter.update(dt);
+        vertices.clear();
+        emitter.writeVertices(vertices);
+    }
+}
@@ -0,0 +1,339 @@
+package com.base.engine;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.util.Arrays;
+
+/**
+ * The ParticleEmitter class simulates a fixed-capacity set of particles on the CPU.
+ * Particle state is stored in primitive arrays and the live particles are always packed at the
+ * front: a dead particle is replaced by the last live one, so nothing is ever allocated after
+ * construction. Large emitters are updated in parallel across all cores.
+ *
+ * writeVertices() packs the live particles into a vertex stream a renderer can upload as is,
+ * VERTEX_SIZE bytes per particle: position (3 floats), size (float) and color (4 unsigned bytes,
+ * RGBA, with alpha fading out over the particle's life).
+ */
+public class ParticleEmitter {
+    // Bytes per particle in the vertex stream
+    public static final int VERTEX_SIZE = 20;
+
+    // Minimum number of live particles before the update is split across cores
+    public static final int PARALLEL_THRESHOLD = 16384;
+    // Number of particles processed per parallel task
+    private static final int CHUNK_SIZE = 8192;
+    // Number of particles staged in an array before being copied into the vertex buffer in bulk
+    private static final int WRITE_BATCH = 512;
+
+
+    private final int capacity;
+    private int count;
+
+    // Position, velocity, age and lifetime of each particle
+    private final float[] px, py, pz;
+    private final float[] vx, vy, vz;
+    private final float[] age;
+    private final float[] life;
+    private final float[] size;
+    // Packed RGB color (0xRRGGBB) of each particle
+    private final int[] color;
+
+    // Emission settings
+    private float originX, originY, originZ;
+    private float velocityX, velocityY = 1, velocityZ;
+    private float spread = 0.5f;
+    private float lifetime = 2;
+    private float particleSize = 0.1f;
+    private int particleColor = 0xFFFFFF;
+
+    private float gravityX = 0, gravityY = -9.81f, gravityZ = 0;
+    private boolean parallel = true;
+
+    // State of the xorshift generator used for emission
+    private long seed = 0x2545F4914F6CDD1DL;
+
+    // Parallel tasks for update() and writeVertices(), reused so neither allocates per call
+    private final ParallelLoop integrator = new ParallelLoop(CHUNK_SIZE) {
+        protected void run(int start, int end) {
+            integrate(start, end, stepDt);
+        }
+    };
+    private final ParallelLoop writer = new ParallelLoop(CHUNK_SIZE) {
+        protected void run(int start, int end) {
+            write(writeTarget, writeBase, start, end);
+        }
+    };
+    private float stepDt;
+    private IntBuffer writeTarget;
+    private int writeBase;
+
+    // The last vertex buffer written to and the int view over it
+    private ByteBuffer vertexBuffer;
+    private IntBuffer vertexView;
+    // Staging array and own view of the vertex buffer for each chunk, created on first use
+    // (bulk puts are relative, so chunks written concurrently can't share one view)
+    private final int[][] chunkWords;
+    private final IntBuffer[] chunkViews;
+
+    /**
+     * Creates an emitter.
+     *
+     * @param capacity The maximum number of live particles; further emissions are dropped.
+     */
+    public ParticleEmitter(int capacity) {
+        this.capacity = capacity;
+        px = new float[capacity];
+        py = new float[capacity];
+        pz = new float[capacity];
+        vx = new float[capacity];
+        vy = new float[capacity];
+        vz = new float[capacity];
+        age = new float[capacity];
+        life = new float[capacity];
+        size = new float[capacity];
+        color = new int[capacity];
+
+        int chunks = Math.max((capacity + CHUNK_SIZE - 1) / CHUNK_SIZE, 1);
+        chunkWords = new int[chunks][];
+        chunkViews = new IntBuffer[chunks];
+    }
+
+    /**
+     * Emits particles at the origin with the configured velocity, spread, lifetime, size and color.
+     *
+     * @param amount The number of particles to emit.
+     * @return The number of particles actually emitted, limited by the free capacity.
+     */
+    public int emit(int amount) {
+        int emitted = Math.min(amount, capacity - count);
+
+        for (int n = 0; n < emitted; n++) {
+            int i = count++;
+            px[i] = originX;
+            py[i] = originY;
+            pz[i] = originZ;
+            vx[i] = velocityX + spread * nextSigned();
+            vy[i] = velocityY + spread * nextSigned();
+            vz[i] = velocityZ + spread * nextSigned();
+            age[i] = 0;
+            life[i] = lifetime * (0.75f + 0.5f * nextUnsigned());
+            size[i] = particleSize;
+            color[i] = particleColor;
+        }
+        return emitted;
+    }
+
+    /**
+     * Advances all particles and removes the ones that have died.
+     *
+     * @param dt The time to advance, in seconds.
+     */
+    public void update(float dt) {
+        if (parallel && count >= PARALLEL_THRESHOLD) {
+            stepDt = dt;
+            integrator.invoke(count);
+        } else {
+            integrate(0, count, dt);
+        }
+
+        compact();
+    }
+
+    // Moves the particles in [start, end) and ages them
+    private void integrate(int start, int end, float dt) {
+        float gx = gravityX * dt, gy = gravityY * dt, gz = gravityZ * dt;
+        for (int i = start; i < end; i++) {
+            vx[i] += gx;
+            vy[i] += gy;
+            vz[i] += gz;
+            px[i] += vx[i] * dt;
+            py[i] += vy[i] * dt;
+            pz[i] += vz[i] * dt;
+            age[i] += dt;
+        }
+    }
+
+    // Removes dead particles by moving the last live particle into their slot
+    private void compact() {
+        int i = 0;
+        while (i < count) {
+            if (age[i] < life[i]) {
+                i++;
+                continue;
+            }
+
+            int last = --count;
+            px[i] = px[last];
+            py[i] = py[last];
+            pz[i] = pz[last];
+            vx[i] = vx[last];
+            vy[i] = vy[last];
+            vz[i] = vz[last];
+            age[i] = age[last];
+            life[i] = life[last];
+            size[i] = size[last];
+            color[i] = color[last];
+            // Don't advance i; the particle moved here has to be checked too
+        }
+    }
+
+    /**
+     * Writes the live particles into a vertex buffer, VERTEX_SIZE bytes each, starting at the
+     * buffer's position, and advances the position past them.
+     *
+     * @param out The buffer to write to; needs room for getCount() * VERTEX_SIZE bytes.
+     * @return The number of vertices written.
+     */
+    public int writeVertices(ByteBuffer out) {
+        if (out.remaining() < count * VERTEX_SIZE) {
+            throw new IllegalArgumentException("Vertex buffer too small: " + out.remaining() + " bytes for " + count + " particles");
+        }
+
+        if (out.position() % 4 != 0) {
+            throw new IllegalArgumentException("Vertex buffer position must be 4-byte aligned: " + out.position());
+        }
+
+        // Write whole words through an int view over the whole buffer, kept while the same buffer is passed in
+        if (out != vertexBuffer) {
+            ByteBuffer bytes = out.duplicate().order(ByteOrder.nativeOrder());
+            bytes.clear();
+            vertexBuffer = out;
+            vertexView = bytes.asIntBuffer();
+            Arrays.fill(chunkViews, null);
+        }
+        int base = out.position() / 4;
+
+        if (parallel && count >= PARALLEL_THRESHOLD) {
+            writeTarget = vertexView;
+            writeBase = base;
+            writer.invoke(count);
+            writeTarget = null;
+        } else {
+            write(vertexView, base, 0, count);
+        }
+
+        out.position(out.position() + count * VERTEX_SIZE);
+        return count;
+    }
+
+    // Writes the particles in [start, end), staging WRITE_BATCH particles at a time in an array
+    // and copying each batch in bulk; each chunk uses its own array and view, so chunks can be
+    // written concurrently
+    private void write(IntBuffer out, int base, int start, int end) {
+        boolean littleEndian = ByteOrder.nativeOrder() == ByteOrder.LITTLE_ENDIAN;
+        int wordsPerVertex = VERTEX_SIZE / 4;
+
+        int chunk = start / CHUNK_SIZE;
+        if (chunkWords[chunk] == null) {
+            chunkWords[chunk] = new int[WRITE_BATCH * wordsPerVertex];
+        }
+        if (chunkViews[chunk] == null) {
+            chunkViews[chunk] = out.duplicate();
+        }
+        int[] words = chunkWords[chunk];
+        IntBuffer view = chunkViews[chunk];
+
+        for (int batch = start; batch < end; batch += WRITE_BATCH) {
+            int batchEnd = Math.min(batch + WRITE_BATCH, end);
+            for (int i = batch; i < batchEnd; i++) {
+                int w = (i - batch) * wordsPerVertex;  // Computed rather than incremented, which the JIT optimizes better
+                int alpha = (int) (255 * Math.max(0.0f, 1.0f - age[i] / life[i]));
+                int rgb = color[i];
+
+                // The color bytes have to end up in memory as R, G, B, A
+                int rgba = littleEndian
+                        ? alpha << 24 | (rgb & 0xFF) << 16 | (rgb & 0xFF00) | (rgb >> 16 & 0xFF)
+                        : rgb << 8 | alpha;
+
+                words[w] = Float.floatToRawIntBits(px[i]);
+                words[w + 1] = Float.floatToRawIntBits(py[i]);
+                words[w + 2] = Float.floatToRawIntBits(pz[i]);
+                words[w + 3] = Float.floatToRawIntBits(size[i]);
+                words[w + 4] = rgba;
+            }
+
+            view.position(base + batch * wordsPerVertex);
+            view.put(words, 0, (batchEnd - batch) * wordsPerVertex);
+        }
+    }
+
+    // Removes all particles
+    public void clear() {
+        count = 0;
+    }
+
+    // Returns the number of live particles
+    public int getCount() {
+        return count;
+    }
+
+    // Returns the maximum number of live particles
+    public int getCapacity() {
+        return capacity;
+    }
+
+    // Returns the position of a live particle as a new vector
+    public Vector3f getPosition(int i) {
+        return new Vector3f(px[i], py[i], pz[i]);
+    }
+
+    // Sets the point new particles are emitted from
+    public void setOrigin(Vector3f origin) {
+        originX = origin.getX();
+        originY = origin.getY();
+        originZ = origin.getZ();
+    }
+
+    // Sets the base velocity of new particles
+    public void setVelocity(Vector3f velocity) {
+        velocityX = velocity.getX();
+        velocityY = velocity.getY();
+        velocityZ = velocity.getZ();
+    }
+
+    // Sets the maximum random deviation added to each velocity component of new particles
+    public void setSpread(float spread) {
+        this.spread = spread;
+    }
+
+    // Sets the average lifetime of new particles, in seconds (varied by +/-25%)
+    public void setLifetime(float lifetime) {
+        this.lifetime = lifetime;
+    }
+
+    // Sets the size of new particles
+    public void setParticleSize(float particleSize) {
+        this.particleSize = particleSize;
+    }
+
+    // Sets the RGB color (0xRRGGBB) of new particles
+    public void setColor(int color) {
+        this.particleColor = color & 0xFFFFFF;
+    }
+
+    // Sets the acceleration applied to every particle
+    public void setGravity(Vector3f gravity) {
+        gravityX = gravity.getX();
+        gravityY = gravity.getY();
+        gravityZ = gravity.getZ();
+    }
+
+    // Enables or disables parallel updates of large emitters
+    public void setParallel(boolean parallel) {
+        this.parallel = parallel;
+    }
+
+    // Returns a random float in [0, 1)
+    private float nextUnsigned() {
+        seed ^= seed << 13;
+        seed ^= seed >>> 7;
+        seed ^= seed << 17;
+        return (seed >>> 40) / (float) (1 << 24);
+    }
+
+    // Returns a random float in [-1, 1)
+    private float nextSigned() {
+        return nextUnsigned() * 2 - 1;
+    }
+}
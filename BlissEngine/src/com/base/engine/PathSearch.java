@@ -0,0 +1,166 @@
+package com.base.engine;
+
+import java.util.Arrays;
+
+/**
+ * An A* search over a NavGrid that can be run a few expansions at a time. All working state is
+ * kept in primitive arrays that are reused from one search to the next; a generation stamp marks
+ * which entries belong to the current search, so nothing has to be cleared between searches.
+ */
+class PathSearch {
+    static final int RUNNING = 0;
+    static final int FOUND = 1;
+    static final int FAILED = 2;
+
+    private static final float DIAGONAL = (float) Math.sqrt(2.0);
+    private static final float TIE_BREAK = 1.001f;
+
+    // Neighbour offsets: four straight moves, then four diagonals
+    private static final int[] DX = { 1, -1, 0, 0, 1, 1, -1, -1 };
+    private static final int[] DY = { 0, 0, 1, -1, 1, -1, 1, -1 };
+
+    private NavGrid grid;
+    private final IndexedHeap open = new IndexedHeap(0);
+    private float[] cost = new float[0];  // Cost of the best known path from the start
+    private int[] parent = new int[0];
+    private int[] seen = new int[0];      // Generation in which the cost/parent entry was set
+    private int[] closed = new int[0];    // Generation in which the node was expanded
+    private int generation;
+
+    private int start;
+    private int goal;
+    private int maxExpansions;
+    private int expansions;
+    private int status = FAILED;
+
+    /**
+     * Starts a new search.
+     *
+     * @param maxExpansions The number of nodes after which the search gives up.
+     */
+    void begin(NavGrid grid, int start, int goal, int maxExpansions) {
+        this.grid = grid;
+        this.start = start;
+        this.goal = goal;
+        this.maxExpansions = maxExpansions;
+        this.expansions = 0;
+
+        int cells = grid.getCellCount();
+        if (cost.length < cells) {
+            cost = new float[cells];
+            parent = new int[cells];
+            seen = new int[cells];
+            closed = new int[cells];
+            generation = 0;
+        }
+        open.ensureCapacity(cells);
+        open.clear();
+
+        if (++generation == Integer.MAX_VALUE) {
+            Arrays.fill(seen, 0);
+            Arrays.fill(closed, 0);
+            generation = 1;
+        }
+
+        if (start < 0 || goal < 0 || !grid.isWalkable(start) || !grid.isWalkable(goal)) {
+            status = FAILED;
+            this.grid = null;
+            return;
+        }
+
+        cost[start] = 0;
+        parent[start] = -1;
+        seen[start] = generation;
+        open.push(start, heuristic(start));
+        status = RUNNING;
+    }
+
+    /**
+     * Expands up to the given number of nodes.
+     *
+     * @return RUNNING, FOUND or FAILED.
+     */
+    int step(int steps) {
+        if (status != RUNNING) {
+            return status;
+        }
+        int width = grid.getWidth();
+
+        while (status == RUNNING && steps-- > 0) {
+            if (open.isEmpty() || expansions >= maxExpansions) {
+                status = FAILED;
+                break;
+            }
+
+            int node = open.pop();
+            if (node == goal) {
+                status = FOUND;
+                break;
+            }
+            closed[node] = generation;
+            expansions++;
+
+            int x = node % width;
+            int y = node / width;
+            for (int d = 0; d < 8; d++) {
+                int nx = x + DX[d];
+                int ny = y + DY[d];
+                if (!grid.isWalkable(nx, ny)) {
+                    continue;
+                }
+                // No cutting corners around blocked cells
+                if (d >= 4 && (!grid.isWalkable(nx, y) || !grid.isWalkable(x, ny))) {
+                    continue;
+                }
+
+                int next = ny * width + nx;
+                if (closed[next] == generation) {
+                    continue;
+                }
+
+                float nextCost = cost[node] + (d < 4 ? 1 : DIAGONAL);
+                if (seen[next] != generation || nextCost < cost[next]) {
+                    seen[next] = generation;
+                    cost[next] = nextCost;
+                    parent[next] = node;
+                    open.push(next, nextCost + heuristic(next));
+                }
+            }
+        }
+
+        // A finished search doesn't need the grid any more; don't keep it alive
+        if (status != RUNNING) {
+            grid = null;
+        }
+        return status;
+    }
+
+    // Returns the cells from start to goal of a successful search
+    int[] getPath() {
+        int length = 1;
+        for (int node = goal; node != start; node = parent[node]) {
+            length++;
+        }
+
+        int[] path = new int[length];
+        int node = goal;
+        for (int i = length - 1; i >= 0; i--) {
+            path[i] = node;
+            node = i > 0 ? parent[node] : node;
+        }
+        return path;
+    }
+
+    int getStatus() {
+        return status;
+    }
+
+    // Octile distance to the goal, scaled up very slightly so ties between equally good nodes
+    // go to the one closer to the goal; paths stay within 0.1% of the shortest
+    private float heuristic(int node) {
+        int width = grid.getWidth();
+        int dx = Math.abs(node % width - goal % width);
+        int dy = Math.abs(node / width - goal / width);
+        return (Math.max(dx, dy) + (DIAGONAL - 1) * Math.min(dx, dy)) * TIE_BREAK;
+    }
+}
@@ -0,0 +1,383 @@
+package com.base.engine;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.stream.IntStream;
+
+/**
+ * The PathfindingService class finds paths on a NavGrid without stalling the game loop.
+ * Requests are queued and solved by update(), which spends at most a given time per tick and
+ * carries unfinished searches over to the next tick. For large waves of requests, solveAll()
+ * solves everything queued in parallel on all cores instead.
+ *
+ * Found paths are cached at two levels: by exact start and goal cell, and by the pair of
+ * CLUSTER_SIZE x CLUSTER_SIZE clusters they connect. A request between two distant clusters that
+ * already have a cached path only needs two short local searches to join that path, instead of a
+ * full search. Joined paths are only used if they are at most MAX_DETOUR times longer than the
+ * octile distance, plus whatever detour around obstacles the cached path needed itself, and are
+ * never cached themselves. Caches are dropped whenever the grid changes.
+ *
+ * The service must be used from the loop thread; futures are completed on it too.
+ */
+public class PathfindingService {
+    // Width of a cluster, in cells
+    public static final int CLUSTER_SIZE = 16;
+    // Maximum number of paths kept in each cache
+    public static final int CACHE_SIZE = 1024;
+    // Maximum length of a joined path relative to the octile distance between start and goal
+    public static final float MAX_DETOUR = 1.25f;
+
+    // Number of expansions between budget checks
+    private static final int STEP_BATCH = 128;
+    // Expansion limit of the local searches joining a cluster-cached path
+    private static final int LOCAL_EXPANSIONS = CLUSTER_SIZE * CLUSTER_SIZE * 4;
+
+    private static final float DIAGONAL = (float) Math.sqrt(2.0);
+
+
+    // A queued request for a path between two cells
+    private static class Request {
+        private final int start;
+        private final int goal;
+        private final CompletableFuture<List<Vector2f>> future = new CompletableFuture<List<Vector2f>>();
+
+        private Request(int start, int goal) {
+            this.start = start;
+            this.goal = goal;
+        }
+    }
+
+    private final NavGrid grid;
+    private final ArrayDeque<Request> queue = new ArrayDeque<Request>();
+    private final PathSearch search = new PathSearch();
+    private final PathSearch localSearch = new PathSearch();
+    // Search workspaces for the threads of a parallel batch, borrowed one per search
+    private final ConcurrentLinkedQueue<PathSearch> workerSearches = new ConcurrentLinkedQueue<PathSearch>();
+    private Request active;
+    private int activeVersion;
+
+    private final Map<Long, int[]> exactCache = new LruCache();
+    private final Map<Long, int[]> clusterCache = new LruCache();
+    private int cacheVersion;
+
+    // Statistics
+    private long exactHits;
+    private long clusterHits;
+    private long searches;
+
+    public PathfindingService(NavGrid grid) {
+        this.grid = grid;
+        this.cacheVersion = grid.getVersion();
+    }
+
+    /**
+     * Requests a path. Exact cache hits complete immediately; everything else is solved by
+     * update() or solveAll().
+     *
+     * Paths from a full search are within 0.1% of the shortest. A path joined from the cluster
+     * cache can be longer: up to MAX_DETOUR times the octile distance between start and goal
+     * (25% longer than a straight run on open ground), plus whatever detour around obstacles the
+     * cached path needed; on a grid with a fifth of the cells blocked, joined paths came out up
+     * to about 30% longer than the shortest. Requests within neighbouring clusters never use the
+     * cluster cache.
+     *
+     * @param start The position to start from.
+     * @param goal The position to go to.
+     * @return A future of the cell centers along the path, from start to goal; empty if there is no path.
+     */
+    public CompletableFuture<List<Vector2f>> request(Vector2f start, Vector2f goal) {
+        Request request = new Request(grid.cellAt(start), grid.cellAt(goal));
+
+        validateCache();
+        int[] cached = exactCache.get(key(request.start, request.goal));
+        if (cached != null) {
+            exactHits++;
+            request.future.complete(toWaypoints(cached));
+        } else {
+            queue.offer(request);
+        }
+        return request.future;
+    }
+
+    /**
+     * Requests a path between positions in the XZ plane. The waypoints keep the height of the start.
+     * The path may be longer than the shortest one, as described for request(Vector2f, Vector2f).
+     *
+     * @param start The position to start from.
+     * @param goal The position to go to.
+     * @return A future of the waypoints along the path, from start to goal; empty if there is no path.
+     */
+    public CompletableFuture<List<Vector3f>> request(final Vector3f start, Vector3f goal) {
+        return request(new Vector2f(start.getX(), start.getZ()), new Vector2f(goal.getX(), goal.getZ())).thenApply(path -> {
+            List<Vector3f> waypoints = new ArrayList<Vector3f>(path.size());
+            for (Vector2f point : path) {
+                waypoints.add(new Vector3f(point.getX(), start.getY(), point.getY()));
+            }
+            return waypoints;
+        });
+    }
+
+    /**
+     * Works on queued requests until they are all solved or the time budget is used up.
+     * A search that doesn't finish in time continues on the next call.
+     *
+     * @param budget The time to spend, in nanoseconds.
+     */
+    public void update(long budget) {
+        long startTime = Time.getTime();
+
+        do {
+            if (active == null) {
+                active = queue.poll();
+                if (active == null) {
+                    break;
+                }
+                if (solveFromCache(active)) {
+                    active = null;
+                    continue;
+                }
+                activeVersion = grid.getVersion();
+                search.begin(grid, active.start, active.goal, Integer.MAX_VALUE);
+                searches++;
+            }
+
+            // Restart a search the grid has changed under
+            if (activeVersion != grid.getVersion()) {
+                activeVersion = grid.getVersion();
+                search.begin(grid, active.start, active.goal, Integer.MAX_VALUE);
+            }
+
+            int status = search.step(STEP_BATCH);
+            if (status != PathSearch.RUNNING) {
+                finish(active, status == PathSearch.FOUND ? search.getPath() : null);
+                active = null;
+            }
+        } while (Time.getTime() - startTime < budget);
+    }
+
+    /**
+     * Solves every queued request right away, running the searches in parallel on all cores.
+     * Meant for large waves of requests, when spreading them over ticks would take too long.
+     *
+     * @return The number of requests solved.
+     */
+    public int solveAll() {
+        // Solve one request per cluster pair first; the others can then mostly join its path
+        ArrayList<Request> first = new ArrayList<Request>();
+        ArrayList<Request> rest = new ArrayList<Request>();
+        HashSet<Long> corridors = new HashSet<Long>();
+
+        int solved = queue.size();
+        Request request;
+        while ((request = queue.poll()) != null) {
+            if (solveFromCache(request)) {
+                continue;
+            }
+            if (corridors.add(key(clusterOf(request.start), clusterOf(request.goal)))) {
+                first.add(request);
+            } else {
+                rest.add(request);
+            }
+        }
+        solveParallel(first);
+
+        ArrayList<Request> remaining = new ArrayList<Request>();
+        for (Request r : rest) {
+            if (!solveFromCache(r)) {
+                remaining.add(r);
+            }
+        }
+        solveParallel(remaining);
+
+        return solved;
+    }
+
+    // Runs full searches for the requests on all cores, then caches and completes them on this thread
+    private void solveParallel(List<Request> batch) {
+        final Request[] requests = batch.toArray(new Request[0]);
+        final int[][] paths = new int[requests.length][];
+        IntStream.range(0, requests.length).parallel().forEach(i -> {
+            PathSearch workerSearch = workerSearches.poll();
+            if (workerSearch == null) {
+                workerSearch = new PathSearch();
+            }
+            workerSearch.begin(grid, requests[i].start, requests[i].goal, Integer.MAX_VALUE);
+            if (workerSearch.step(Integer.MAX_VALUE) == PathSearch.FOUND) {
+                paths[i] = workerSearch.getPath();
+            }
+            workerSearches.offer(workerSearch);
+        });
+        searches += requests.length;
+
+        for (int i = 0; i < requests.length; i++) {
+            finish(requests[i], paths[i]);
+        }
+    }
+
+    // Answers a request from the caches if possible
+    private boolean solveFromCache(Request request) {
+        validateCache();
+
+        if (request.start < 0 || request.goal < 0) {
+            request.future.complete(Collections.<Vector2f>emptyList());
+            return true;
+        }
+
+        int[] exact = exactCache.get(key(request.start, request.goal));
+        if (exact != null) {
+            exactHits++;
+            request.future.complete(toWaypoints(exact));
+            return true;
+        }
+
+        // Joining only pays off between distant clusters; nearby requests get a full search
+        if (!distantClusters(request.start, request.goal)) {
+            return false;
+        }
+        int[] corridor = clusterCache.get(key(clusterOf(request.start), clusterOf(request.goal)));
+        if (corridor == null) {
+            return false;
+        }
+
+        // Join the cached path with short searches at both ends
+        int[] head = localPath(request.start, corridor[0]);
+        int[] tail = head == null ? null : localPath(corridor[corridor.length - 1], request.goal);
+        if (tail == null) {
+            return false;
+        }
+
+        int[] path = new int[head.length + corridor.length + tail.length - 2];
+        System.arraycopy(head, 0, path, 0, head.length);
+        System.arraycopy(corridor, 1, path, head.length, corridor.length - 1);
+        System.arraycopy(tail, 1, path, head.length + corridor.length - 1, tail.length - 1);
+
+        // A joined path can detour through the ends of the cached one; fall back to a full search
+        // if it is much longer than the straight line plus the detour the cached path needed itself
+        float corridorDetour = Math.max(length(corridor) - octile(corridor[0], corridor[corridor.length - 1]), 0);
+        if (length(path) > MAX_DETOUR * octile(request.start, request.goal) + corridorDetour) {
+            return false;
+        }
+
+        // Not put into the exact cache, so a later full search can still find the best path
+        clusterHits++;
+        request.future.complete(toWaypoints(path));
+        return true;
+    }
+
+    // Finds a short path with a bounded search, or returns null
+    private int[] localPath(int from, int to) {
+        if (from == to) {
+            return new int[] { from };
+        }
+        localSearch.begin(grid, from, to, LOCAL_EXPANSIONS);
+        return localSearch.step(Integer.MAX_VALUE) == PathSearch.FOUND ? localSearch.getPath() : null;
+    }
+
+    // Caches a search result and completes its request
+    private void finish(Request request, int[] path) {
+        if (path == null) {
+            request.future.complete(Collections.<Vector2f>emptyList());
+            return;
+        }
+
+        validateCache();
+        exactCache.put(key(request.start, request.goal), path);
+        if (distantClusters(request.start, request.goal)) {
+            clusterCache.put(key(clusterOf(request.start), clusterOf(request.goal)), path);
+        }
+        request.future.complete(toWaypoints(path));
+    }
+
+    // Drops the caches if the grid has changed since they were filled
+    private void validateCache() {
+        if (cacheVersion != grid.getVersion()) {
+            exactCache.clear();
+            clusterCache.clear();
+            cacheVersion = grid.getVersion();
+        }
+    }
+
+    private int clusterOf(int cell) {
+        int clustersPerRow = (grid.getWidth() + CLUSTER_SIZE - 1) / CLUSTER_SIZE;
+        return (cell / grid.getWidth() / CLUSTER_SIZE) * clustersPerRow + (cell % grid.getWidth()) / CLUSTER_SIZE;
+    }
+
+    // Returns true if the cells are in clusters that are neither the same nor neighbours
+    private boolean distantClusters(int a, int b) {
+        int width = grid.getWidth();
+        int dx = Math.abs(a % width / CLUSTER_SIZE - b % width / CLUSTER_SIZE);
+        int dy = Math.abs(a / width / CLUSTER_SIZE - b / width / CLUSTER_SIZE);
+        return Math.max(dx, dy) > 1;
+    }
+
+    // Distance between two cells when moving straight and diagonally with nothing in the way
+    private float octile(int a, int b) {
+        int width = grid.getWidth();
+        int dx = Math.abs(a % width - b % width);
+        int dy = Math.abs(a / width - b / width);
+        return Math.max(dx, dy) + (DIAGONAL - 1) * Math.min(dx, dy);
+    }
+
+    // Returns the length of a path of neighbouring cells
+    private float length(int[] path) {
+        int width = grid.getWidth();
+        float length = 0;
+        for (int i = 1; i < path.length; i++) {
+            boolean diagonal = path[i] % width != path[i - 1] % width && path[i] / width != path[i - 1] / width;
+            length += diagonal ? DIAGONAL : 1;
+        }
+        return length;
+    }
+
+    private List<Vector2f> toWaypoints(int[] path) {
+        List<Vector2f> waypoints = new ArrayList<Vector2f>(path.length);
+        for (int cell : path) {
+            waypoints.add(grid.centerOf(cell));
+        }
+        return waypoints;
+    }
+
+    private static long key(int a, int b) {
+        return (long) a << 32 | (b & 0xFFFFFFFFL);
+    }
+
+    // Returns the number of requests waiting, including the one being searched
+    public int getPendingCount() {
+        return queue.size() + (active != null ? 1 : 0);
+    }
+
+    // Returns the number of requests answered from the exact cache
+    public long getExactCacheHits() {
+        return exactHits;
+    }
+
+    // Returns the number of requests answered by joining a cluster-cached path
+    public long getClusterCacheHits() {
+        return clusterHits;
+    }
+
+    // Returns the number of full searches run
+    public long getSearchCount() {
+        return searches;
+    }
+
+    // A map that evicts the least recently used path once it holds CACHE_SIZE entries
+    private static class LruCache extends LinkedHashMap<Long, int[]> {
+        private static final long serialVersionUID = 1L;
+
+        private LruCache() {
+            super(16, 0.75f, true);
+        }
+
+        protected boolean removeEldestEntry(Map.Entry<Long, int[]> eldest) {
+            return size() > CACHE_SIZE;
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.base.engine;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event spanning one phase of the main loop, such as game.update() or render().
+ */
+@Name("com.base.engine.Phase")
+@Label("Engine Phase")
+@Category("Bliss Engine")
+@Description("One phase of a tick or frame of the main loop")
+@StackTrace(false)
+class PhaseEvent extends Event {
+    @Label("Phase")
+    String phase;
+
+    @Label("Tick")
+    long tick;
+
+    @Label("Frame")
+    long frame;
+
+    @Label("Allocated Bytes")
+    @Description("Bytes allocated by the loop thread during the phase, excluding the profiler")
+    long allocatedBytes;
+}
@@ -0,0 +1,27 @@
+package com.base.engine;
+
+import java.util.Arrays;
+
+/**
+ * A snapshot in its quantized wire form, kept by the encoder and decoder as delta baselines.
+ */
+class QuantizedSnapshot {
+    int tick = -1;
+    int count;
+    int[] x = new int[0];
+    int[] y = new int[0];
+    int[] z = new int[0];
+    int[] rotation = new int[0];
+
+    // Makes room for the given number of entities and sets the count
+    void resize(int count) {
+        if (count > x.length) {
+            int capacity = Math.max(count, x.length * 2);
+            x = Arrays.copyOf(x, capacity);
+            y = Arrays.copyOf(y, capacity);
+            z = Arrays.copyOf(z, capacity);
+            rotation = Arrays.copyOf(rotation, capacity);
+        }
+        this.count = count;
+    }
+}
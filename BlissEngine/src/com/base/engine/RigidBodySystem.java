@@ -0,0 +1,358 @@
+package com.base.engine;
+
+import java.util.Arrays;
+
+/**
+ * The RigidBodySystem class moves rigid bodies with semi-implicit Euler integration.
+ * Body state is stored in primitive arrays (one array per component) instead of per-body
+ * Vector3f and Quaternion objects, so stepping allocates nothing and walks memory linearly.
+ *
+ * update() advances the simulation in fixed substeps, independent of the frame rate. Bodies that
+ * stay nearly still for SLEEP_TIME seconds fall asleep and are skipped until something wakes them.
+ * Large systems can be integrated in parallel across all cores.
+ *
+ * Bodies are identified by their index. Removing a body moves the last body into its slot.
+ */
+public class RigidBodySystem {
+    // Length of one simulation substep in seconds
+    public static final double SUBSTEP = 1.0 / 120.0;
+    // Maximum number of substeps per update, so a long frame can't snowball into longer ones
+    public static final int MAX_SUBSTEPS = 8;
+
+    // Squared speed (linear plus angular) below which a body counts as still
+    public static final float SLEEP_THRESHOLD = 0.0025f;
+    // Time in seconds a body has to stay still before it falls asleep
+    public static final float SLEEP_TIME = 0.5f;
+
+    // Minimum number of bodies before integration is split across cores
+    public static final int PARALLEL_THRESHOLD = 8192;
+    // Number of bodies integrated per parallel task
+    private static final int CHUNK_SIZE = 2048;
+
+    private int count;
+
+    // Position
+    private float[] px, py, pz;
+    // Linear velocity
+    private float[] vx, vy, vz;
+    // Orientation quaternion
+    private float[] qx, qy, qz, qw;
+    // Angular velocity in radians per second
+    private float[] wx, wy, wz;
+    // Force accumulated since the last substep
+    private float[] fx, fy, fz;
+    // Inverse mass; 0 for static bodies
+    private float[] invMass;
+    // Time the body has been still, and whether it is awake
+    private float[] stillTime;
+    private boolean[] awake;
+
+    private float gravityX = 0, gravityY = -9.81f, gravityZ = 0;
+    private double unprocessedTime;
+    private boolean parallel = true;
+
+    // Integrates the chunks of a parallel substep; reused so stepping allocates nothing
+    private final ParallelLoop integrator = new ParallelLoop(CHUNK_SIZE) {
+        protected void run(int start, int end) {
+            integrate(start, end, stepDt);
+        }
+    };
+    private float stepDt;
+
+    /**
+     * Creates an empty system.
+     *
+     * @param initialCapacity The number of bodies to allocate storage for; the system grows as needed.
+     */
+    public RigidBodySystem(int initialCapacity) {
+        allocate(Math.max(initialCapacity, 16));
+    }
+
+    /**
+     * Adds a body at rest with the identity orientation.
+     *
+     * @param position The position of the body.
+     * @param mass The mass of the body, or 0 for a static body.
+     * @return The index of the new body.
+     */
+    public int add(Vector3f position, float mass) {
+        if (count == px.length) {
+            allocate(count * 2);
+        }
+
+        int i = count++;
+        px[i] = position.getX();
+        py[i] = position.getY();
+        pz[i] = position.getZ();
+        vx[i] = vy[i] = vz[i] = 0;
+        qx[i] = qy[i] = qz[i] = 0;
+        qw[i] = 1;
+        wx[i] = wy[i] = wz[i] = 0;
+        fx[i] = fy[i] = fz[i] = 0;
+        invMass[i] = mass > 0 ? 1.0f / mass : 0;
+        stillTime[i] = 0;
+        awake[i] = true;
+        return i;
+    }
+
+    /**
+     * Removes a body by moving the last body into its slot.
+     *
+     * @param i The index of the body to remove.
+     * @return The old index of the body that now has index i, or -1 if the removed body was the last one.
+     */
+    public int remove(int i) {
+        int last = --count;
+        if (i == last) {
+            return -1;
+        }
+
+        px[i] = px[last]; py[i] = py[last]; pz[i] = pz[last];
+        vx[i] = vx[last]; vy[i] = vy[last]; vz[i] = vz[last];
+        qx[i] = qx[last]; qy[i] = qy[last]; qz[i] = qz[last]; qw[i] = qw[last];
+        wx[i] = wx[last]; wy[i] = wy[last]; wz[i] = wz[last];
+        fx[i] = fx[last]; fy[i] = fy[last]; fz[i] = fz[last];
+        invMass[i] = invMass[last];
+        stillTime[i] = stillTime[last];
+        awake[i] = awake[last];
+        return last;
+    }
+
+    // Advances the simulation by the delta time of the current tick
+    public void update() {
+        update(Time.getDelta());
+    }
+
+    /**
+     * Advances the simulation by the given time in fixed substeps. Time left over that doesn't
+     * fill a whole substep is carried over to the next update.
+     *
+     * @param delta The time to advance, in seconds.
+     */
+    public void update(double delta) {
+        unprocessedTime += delta;
+
+        int steps = 0;
+        while (unprocessedTime >= SUBSTEP && steps < MAX_SUBSTEPS) {
+            step((float) SUBSTEP);
+            unprocessedTime -= SUBSTEP;
+            steps++;
+        }
+
+        // Drop the time we couldn't catch up on instead of carrying it forever
+        if (steps == MAX_SUBSTEPS) {
+            unprocessedTime = Math.min(unprocessedTime, SUBSTEP);
+        }
+    }
+
+    /**
+     * Runs a single substep and clears the accumulated forces.
+     *
+     * @param dt The length of the step, in seconds.
+     */
+    public void step(float dt) {
+        if (parallel && count >= PARALLEL_THRESHOLD) {
+            stepDt = dt;
+            integrator.invoke(count);
+        } else {
+            integrate(0, count, dt);
+        }
+    }
+
+    // Integrates the bodies in [start, end) with semi-implicit Euler
+    private void integrate(int start, int end, float dt) {
+        for (int i = start; i < end; i++) {
+            float inv = invMass[i];
+            if (!awake[i] || inv == 0) {
+                fx[i] = fy[i] = fz[i] = 0;
+                continue;
+            }
+
+            // Velocity first, then position with the new velocity
+            vx[i] += (gravityX + fx[i] * inv) * dt;
+            vy[i] += (gravityY + fy[i] * inv) * dt;
+            vz[i] += (gravityZ + fz[i] * inv) * dt;
+            fx[i] = fy[i] = fz[i] = 0;
+
+            px[i] += vx[i] * dt;
+            py[i] += vy[i] * dt;
+            pz[i] += vz[i] * dt;
+
+            // q += 0.5 * dt * (w, 0) * q, then renormalize
+            float ax = wx[i], ay = wy[i], az = wz[i];
+            if (ax != 0 || ay != 0 || az != 0) {
+                float x0 = qx[i], y0 = qy[i], z0 = qz[i], w0 = qw[i];
+                float h = 0.5f * dt;
+                float x = x0 + h * (ax * w0 + ay * z0 - az * y0);
+                float y = y0 + h * (ay * w0 + az * x0 - ax * z0);
+                float z = z0 + h * (az * w0 + ax * y0 - ay * x0);
+                float w = w0 - h * (ax * x0 + ay * y0 + az * z0);
+
+                float length = (float) Math.sqrt(x * x + y * y + z * z + w * w);
+                qx[i] = x / length;
+                qy[i] = y / length;
+                qz[i] = z / length;
+                qw[i] = w / length;
+            }
+
+            // Put bodies to sleep once they have been still for long enough
+            float speed = vx[i] * vx[i] + vy[i] * vy[i] + vz[i] * vz[i] + ax * ax + ay * ay + az * az;
+            if (speed < SLEEP_THRESHOLD) {
+                stillTime[i] += dt;
+                if (stillTime[i] >= SLEEP_TIME) {
+                    awake[i] = false;
+                    vx[i] = vy[i] = vz[i] = 0;
+                    wx[i] = wy[i] = wz[i] = 0;
+                }
+            } else {
+                stillTime[i] = 0;
+            }
+        }
+    }
+
+    /**
+     * Adds a force to a body for the next substep and wakes it up.
+     *
+     * @param i The index of the body.
+     * @param x The x-component of the force.
+     * @param y The y-component of the force.
+     * @param z The z-component of the force.
+     */
+    public void applyForce(int i, float x, float y, float z) {
+        fx[i] += x;
+        fy[i] += y;
+        fz[i] += z;
+        wake(i);
+    }
+
+    /**
+     * Changes the velocity of a body by an impulse and wakes it up.
+     *
+     * @param i The index of the body.
+     * @param impulse The impulse to apply.
+     */
+    public void applyImpulse(int i, Vector3f impulse) {
+        vx[i] += impulse.getX() * invMass[i];
+        vy[i] += impulse.getY() * invMass[i];
+        vz[i] += impulse.getZ() * invMass[i];
+        wake(i);
+    }
+
+    // Wakes a sleeping body
+    public void wake(int i) {
+        awake[i] = true;
+        stillTime[i] = 0;
+    }
+
+    // Returns true if the body is being simulated
+    public boolean isAwake(int i) {
+        return awake[i];
+    }
+
+    // Returns the position of a body as a new vector
+    public Vector3f getPosition(int i) {
+        return new Vector3f(px[i], py[i], pz[i]);
+    }
+
+    // Moves a body and wakes it up
+    public void setPosition(int i, Vector3f position) {
+        px[i] = position.getX();
+        py[i] = position.getY();
+        pz[i] = position.getZ();
+        wake(i);
+    }
+
+    // Returns the linear velocity of a body as a new vector
+    public Vector3f getVelocity(int i) {
+        return new Vector3f(vx[i], vy[i], vz[i]);
+    }
+
+    // Sets the linear velocity of a body and wakes it up
+    public void setVelocity(int i, Vector3f velocity) {
+        vx[i] = velocity.getX();
+        vy[i] = velocity.getY();
+        vz[i] = velocity.getZ();
+        wake(i);
+    }
+
+    // Returns the orientation of a body as a new quaternion
+    public Quaternion getOrientation(int i) {
+        return new Quaternion(qx[i], qy[i], qz[i], qw[i]);
+    }
+
+    // Sets the orientation of a body and wakes it up
+    public void setOrientation(int i, Quaternion orientation) {
+        qx[i] = orientation.getX();
+        qy[i] = orientation.getY();
+        qz[i] = orientation.getZ();
+        qw[i] = orientation.getW();
+        wake(i);
+    }
+
+    // Returns the angular velocity of a body, in radians per second, as a new vector
+    public Vector3f getAngularVelocity(int i) {
+        return new Vector3f(wx[i], wy[i], wz[i]);
+    }
+
+    // Sets the angular velocity of a body, in radians per second, and wakes it up
+    public void setAngularVelocity(int i, Vector3f angularVelocity) {
+        wx[i] = angularVelocity.getX();
+        wy[i] = angularVelocity.getY();
+        wz[i] = angularVelocity.getZ();
+        wake(i);
+    }
+
+    // Returns the inverse mass of a body; 0 for static bodies
+    public float getInverseMass(int i) {
+        return invMass[i];
+    }
+
+    // Returns the number of bodies
+    public int getCount() {
+        return count;
+    }
+
+    // Returns the gravity applied to every dynamic body
+    public Vector3f getGravity() {
+        return new Vector3f(gravityX, gravityY, gravityZ);
+    }
+
+    // Sets the gravity applied to every dynamic body and wakes them all, since they may start moving
+    public void setGravity(Vector3f gravity) {
+        gravityX = gravity.getX();
+        gravityY = gravity.getY();
+        gravityZ = gravity.getZ();
+
+        for (int i = 0; i < count; i++) {
+            if (invMass[i] != 0) {
+                wake(i);
+            }
+        }
+    }
+
+    // Returns true if large systems are integrated across multiple cores
+    public boolean isParallel() {
+        return parallel;
+    }
+
+    // Enables or disables parallel integration of large systems
+    public void setParallel(boolean parallel) {
+        this.parallel = parallel;
+    }
+
+    // Grows (or creates) the arrays to the given capacity
+    private void allocate(int capacity) {
+        px = grow(px, capacity); py = grow(py, capacity); pz = grow(pz, capacity);
+        vx = grow(vx, capacity); vy = grow(vy, capacity); vz = grow(vz, capacity);
+        qx = grow(qx, capacity); qy = grow(qy, capacity); qz = grow(qz, capacity); qw = grow(qw, capacity);
+        wx = grow(wx, capacity); wy = grow(wy, capacity); wz = grow(wz, capacity);
+        fx = grow(fx, capacity); fy = grow(fy, capacity); fz = grow(fz, capacity);
+        invMass = grow(invMass, capacity);
+        stillTime = grow(stillTime, capacity);
+        awake = awake == null ? new boolean[capacity] : Arrays.copyOf(awake, capacity);
+    }
+
+    private static float[] grow(float[] array, int capacity) {
+        return array == null ? new float[capacity] : Arrays.copyOf(array, capacity);
+    }
+}
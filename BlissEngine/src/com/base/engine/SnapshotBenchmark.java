@@ -0,0 +1,151 @@
+package com.base.engine;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+/**
+ * Headless benchmark for snapshot networking: a server world of moving and rotating entities is
+ * encoded every tick, sent over a lossy LoopbackTransport, decoded and acknowledged back.
+ * Decoded snapshots are checked against the originals, and bytes per tick and encode/decode
+ * throughput are reported. The run fails with an exception if a position is off by more than the
+ * format's precision, a rotation by more than ROTATION_TOLERANCE, or a packet that arrived is
+ * refused; the transport delivers in order, so loss alone never causes a refusal.
+ *
+ * Usage: SnapshotBenchmark [entities] [ticks] [lossRate]
+ */
+public class SnapshotBenchmark {
+    // Share of entities that move in any given tick
+    private static final float MOVING = 0.25f;
+    // Half the width of the world the format covers
+    private static final float WORLD_SIZE = 1024;
+    // Largest accepted 1 - |q1 . q2| between a sent and a decoded rotation (about 1.6 degrees)
+    private static final float ROTATION_TOLERANCE = 1e-4f;
+
+    public static void main(String[] args) {
+        int entities = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+        int ticks = args.length > 1 ? Integer.parseInt(args[1]) : 2000;
+        double lossRate = args.length > 2 ? Double.parseDouble(args[2]) : 0.05;
+
+        SnapshotFormat format = new SnapshotFormat(-WORLD_SIZE, WORLD_SIZE, 20);
+        SnapshotEncoder encoder = new SnapshotEncoder(format);
+        SnapshotDecoder decoder = new SnapshotDecoder(format);
+
+        int maxPacketSize = 64 + entities * 16;
+        LoopbackTransport snapshots = new LoopbackTransport(maxPacketSize);
+        LoopbackTransport acks = new LoopbackTransport(4);
+        snapshots.setLossRate(lossRate);
+        acks.setLossRate(lossRate);
+
+        ByteBuffer packet = ByteBuffer.allocateDirect(maxPacketSize);
+        ByteBuffer ack = ByteBuffer.allocateDirect(4);
+        WorldSnapshot world = new WorldSnapshot(entities);
+        WorldSnapshot received = new WorldSnapshot(entities);
+        Random random = new Random(42);
+
+        world.setCount(entities);
+        for (int i = 0; i < entities; i++) {
+            world.set(i, random.nextFloat() * 200 - 100, 0, random.nextFloat() * 200 - 100, 0, 0, 0, 1);
+        }
+
+        float maxPositionError = 0;
+        float maxRotationError = 0;
+        int refused = 0;
+
+        for (int tick = 0; tick < ticks; tick++) {
+            world.setTick(tick);
+            move(world, random);
+
+            // Server: encode and send
+            packet.clear();
+            encoder.encode(world, packet);
+            packet.flip();
+            snapshots.send(packet);
+
+            // Client: decode, check and acknowledge
+            ByteBuffer in;
+            while ((in = snapshots.receive()) != null) {
+                if (decoder.decode(in, received)) {
+                    maxPositionError = Math.max(maxPositionError, positionError(world, received));
+                    maxRotationError = Math.max(maxRotationError, rotationError(world, received));
+
+                    ack.clear();
+                    ack.putInt(decoder.getLatestTick());
+                    ack.flip();
+                    acks.send(ack);
+                } else {
+                    refused++;
+                }
+                snapshots.recycle(in);
+            }
+
+            // Server: process acknowledgements
+            while ((in = acks.receive()) != null) {
+                encoder.acknowledge(in.getInt());
+                acks.recycle(in);
+            }
+        }
+
+        int fullSize = 9 + (entities * (3 * format.getPositionBits() + SnapshotFormat.PACKED_ROTATION_BITS) + 7) / 8;
+        double encodeSeconds = encoder.getTotalEncodeTime() / (double) Time.SECOND;
+        double decodeSeconds = decoder.getTotalDecodeTime() / (double) Time.SECOND;
+
+        System.out.println(String.format("%d entities, %d ticks, %.0f%% moving, %.0f%% loss (%d of %d snapshots dropped)",
+                                         entities, ticks, MOVING * 100, lossRate * 100, snapshots.getDroppedCount(), ticks));
+        System.out.println(String.format("bytes per tick: %.1f (full snapshot %d)",
+                                         encoder.getBytesPerSnapshot(), fullSize));
+        System.out.println(String.format("encode: %.1f us/snapshot, %.1f MB/s of entity state",
+                                         encodeSeconds * 1e6 / ticks, ticks * entities * 28L / encodeSeconds / 1e6));
+        System.out.println(String.format("decode: %.1f us/snapshot, %.1f MB/s of entity state",
+                                         decodeSeconds * 1e6 / decoder.getSnapshotCount(),
+                                         decoder.getSnapshotCount() * entities * 28L / decodeSeconds / 1e6));
+        System.out.println(String.format("max position error %.6f (precision %.6f), max rotation error %.2e (tolerance %.2e), %d refused",
+                                         maxPositionError, format.getPositionPrecision(), maxRotationError, ROTATION_TOLERANCE, refused));
+
+        // Allow one float rounding step at the edge of the world on top of the quantization error
+        float positionTolerance = format.getPositionPrecision() + Math.ulp(WORLD_SIZE);
+        if (maxPositionError > positionTolerance) {
+            throw new IllegalStateException("Position error " + maxPositionError + " exceeds the precision " + positionTolerance);
+        }
+        if (maxRotationError > ROTATION_TOLERANCE) {
+            throw new IllegalStateException("Rotation error " + maxRotationError + " exceeds the tolerance " + ROTATION_TOLERANCE);
+        }
+        if (refused > 0) {
+            throw new IllegalStateException(refused + " snapshots were refused by the decoder");
+        }
+    }
+
+    // Moves and turns a random share of the entities
+    private static void move(WorldSnapshot world, Random random) {
+        for (int i = 0; i < world.getCount(); i++) {
+            if (random.nextFloat() >= MOVING) {
+                continue;
+            }
+
+            Vector3f position = world.getPosition(i).add(new Vector3f(random.nextFloat() - 0.5f, 0, random.nextFloat() - 0.5f));
+            Quaternion turn = new Quaternion(0, (float) Math.sin(0.05), 0, (float) Math.cos(0.05));
+            world.setPosition(i, position);
+            world.setRotation(i, turn.mul(world.getRotation(i)).normalize());
+        }
+    }
+
+    private static float positionError(WorldSnapshot expected, WorldSnapshot actual) {
+        float error = 0;
+        for (int i = 0; i < expected.getCount(); i++) {
+            Vector3f d = expected.getPosition(i).sub(actual.getPosition(i));
+            error = Math.max(error, Math.max(Math.abs(d.getX()), Math.max(Math.abs(d.getY()), Math.abs(d.getZ()))));
+        }
+        return error;
+    }
+
+    // Largest 1 - |q1 . q2| over all entities; 0 when the rotations are identical
+    private static float rotationError(WorldSnapshot expected, WorldSnapshot actual) {
+        float error = 0;
+        for (int i = 0; i < expected.getCount(); i++) {
+            Quaternion a = expected.getRotation(i);
+            Quaternion b = actual.getRotation(i);
+            float dot = a.getX() * b.getX() + a.getY() * b.getY() + a.getZ() * b.getZ() + a.getW() * b.getW();
+            error = Math.max(error, 1 - Math.abs(dot));
+        }
+        return error;
+    }
+}
@@ -0,0 +1,152 @@
+package com.base.engine;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+
+/**
+ * The SnapshotDecoder class reads packets written by a SnapshotEncoder. It keeps the last
+ * HISTORY snapshots it decoded, since later packets are encoded against them; acknowledge
+ * getLatestTick() back to the encoder after each successful decode.
+ */
+public class SnapshotDecoder {
+    private final SnapshotFormat format;
+    private final QuantizedSnapshot[] history = new QuantizedSnapshot[SnapshotEncoder.HISTORY];
+    // Packets are decoded into this and only swapped into the history once complete
+    private QuantizedSnapshot scratch = new QuantizedSnapshot();
+    private final BitReader reader = new BitReader();
+    private final float[] rotation = new float[4];
+    private int latestTick = -1;
+
+    // Statistics
+    private long snapshots;
+    private long decodeTime;
+
+    public SnapshotDecoder(SnapshotFormat format) {
+        this.format = format;
+        for (int i = 0; i < history.length; i++) {
+            history[i] = new QuantizedSnapshot();
+        }
+    }
+
+    /**
+     * Decodes a packet from the current position of a buffer.
+     *
+     * @param in The packet.
+     * @param out The snapshot to decode into.
+     * @return True if the packet was decoded; false if it is older than the latest decoded
+     *         snapshot or its baseline is no longer known, in which case it should be dropped.
+     * @throws IllegalArgumentException If the packet is malformed.
+     */
+    public boolean decode(ByteBuffer in, WorldSnapshot out) {
+        long startTime = Time.getTime();
+
+        try {
+            BitReader bits = reader.reset(in);
+            int tick = bits.read(32);
+            int count = bits.read(32);
+            boolean hasBaseline = bits.readBoolean();
+            int baselineTick = hasBaseline ? tick - bits.read(6) : -1;
+
+            if (count < 0 || count > in.remaining() * 8L) {
+                throw new IllegalArgumentException("Invalid entity count in snapshot packet: " + count);
+            }
+            if (tick <= latestTick) {
+                return false;
+            }
+
+            QuantizedSnapshot baseline = null;
+            if (hasBaseline) {
+                baseline = history[baselineTick % history.length];
+                if (baseline.tick != baselineTick) {
+                    return false;
+                }
+            }
+
+            // Decode into the scratch snapshot first so a malformed packet can't corrupt the history
+            QuantizedSnapshot current = scratch;
+            current.tick = -1;
+            current.resize(count);
+
+            int positionBits = format.getPositionBits();
+            int deltaBits = format.getDeltaBits();
+
+            for (int i = 0; i < count; i++) {
+                if (baseline == null || i >= baseline.count) {
+                    current.x[i] = bits.read(positionBits);
+                    current.y[i] = bits.read(positionBits);
+                    current.z[i] = bits.read(positionBits);
+                    current.rotation[i] = bits.read(SnapshotFormat.PACKED_ROTATION_BITS);
+                    continue;
+                }
+
+                current.x[i] = baseline.x[i];
+                current.y[i] = baseline.y[i];
+                current.z[i] = baseline.z[i];
+                current.rotation[i] = baseline.rotation[i];
+
+                if (!bits.readBoolean()) {
+                    continue;  // Unchanged since the baseline
+                }
+
+                if (bits.readBoolean()) {
+                    if (bits.readBoolean()) {
+                        current.x[i] += bits.readSigned(deltaBits);
+                        current.y[i] += bits.readSigned(deltaBits);
+                        current.z[i] += bits.readSigned(deltaBits);
+                    } else {
+                        current.x[i] = bits.read(positionBits);
+                        current.y[i] = bits.read(positionBits);
+                        current.z[i] = bits.read(positionBits);
+                    }
+                }
+
+                if (bits.readBoolean()) {
+                    current.rotation[i] = bits.read(SnapshotFormat.PACKED_ROTATION_BITS);
+                }
+            }
+            current.tick = tick;
+            latestTick = tick;
+
+            // Swap the finished snapshot into the history; the slot it replaces becomes the scratch
+            int slot = tick % history.length;
+            scratch = history[slot];
+            history[slot] = current;
+
+            dequantize(current, out);
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("Truncated snapshot packet", e);
+        } finally {
+            decodeTime += Time.getTime() - startTime;
+        }
+
+        snapshots++;
+        return true;
+    }
+
+    // Converts a snapshot from its wire form
+    private void dequantize(QuantizedSnapshot in, WorldSnapshot out) {
+        out.setTick(in.tick);
+        out.setCount(in.count);
+
+        for (int i = 0; i < in.count; i++) {
+            format.unpackRotation(in.rotation[i], rotation);
+            out.set(i, format.dequantizePosition(in.x[i]), format.dequantizePosition(in.y[i]), format.dequantizePosition(in.z[i]),
+                    rotation[0], rotation[1], rotation[2], rotation[3]);
+        }
+    }
+
+    // Returns the tick of the latest decoded snapshot, to be acknowledged to the encoder
+    public int getLatestTick() {
+        return latestTick;
+    }
+
+    // Returns the number of snapshots decoded
+    public long getSnapshotCount() {
+        return snapshots;
+    }
+
+    // Returns the total time spent decoding, in nanoseconds
+    public long getTotalDecodeTime() {
+        return decodeTime;
+    }
+}
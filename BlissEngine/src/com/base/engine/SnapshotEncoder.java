@@ -0,0 +1,170 @@
+package com.base.engine;
+
+import java.nio.ByteBuffer;
+
+/**
+ * The SnapshotEncoder class writes world snapshots into packets, delta-compressed against the
+ * latest snapshot the receiver has acknowledged.
+ *
+ * Every entity costs one bit if it hasn't changed since the baseline. Otherwise its position is
+ * sent either as a small per-axis delta or in full, and its rotation in smallest-three form only
+ * if it changed. Without a usable baseline every entity is sent in full.
+ *
+ * Packets are written into caller-supplied (typically reused, direct) buffers; the encoder keeps
+ * the last HISTORY snapshots it sent so acknowledgements that arrive late still work.
+ */
+public class SnapshotEncoder {
+    // Number of sent snapshots kept as possible baselines
+    public static final int HISTORY = 64;
+
+    private final SnapshotFormat format;
+    private final QuantizedSnapshot[] history = new QuantizedSnapshot[HISTORY];
+    private final BitWriter writer = new BitWriter();
+    private int acknowledgedTick = -1;
+
+    // Statistics
+    private long snapshots;
+    private long bytes;
+    private long encodeTime;
+
+    public SnapshotEncoder(SnapshotFormat format) {
+        this.format = format;
+        for (int i = 0; i < HISTORY; i++) {
+            history[i] = new QuantizedSnapshot();
+        }
+    }
+
+    /**
+     * Records that the receiver has decoded the snapshot of the given tick, making it
+     * usable as a baseline.
+     *
+     * @param tick The acknowledged tick.
+     */
+    public void acknowledge(int tick) {
+        if (tick > acknowledgedTick) {
+            acknowledgedTick = tick;
+        }
+    }
+
+    /**
+     * Encodes a snapshot at the current position of a buffer. Ticks must increase from one
+     * snapshot to the next.
+     *
+     * @param snapshot The snapshot to encode.
+     * @param out The buffer to write to.
+     * @return The number of bytes written.
+     * @throws java.nio.BufferOverflowException If the buffer is too small.
+     */
+    public int encode(WorldSnapshot snapshot, ByteBuffer out) {
+        long startTime = Time.getTime();
+        int start = out.position();
+        int tick = snapshot.getTick();
+
+        // The baseline must still be in the history and not about to be overwritten by this snapshot
+        QuantizedSnapshot baseline = null;
+        if (acknowledgedTick >= 0 && tick - acknowledgedTick > 0 && tick - acknowledgedTick < HISTORY) {
+            QuantizedSnapshot candidate = history[acknowledgedTick % HISTORY];
+            if (candidate.tick == acknowledgedTick) {
+                baseline = candidate;
+            }
+        }
+
+        QuantizedSnapshot current = history[tick % HISTORY];
+        quantize(snapshot, current);
+
+        BitWriter bits = writer.reset(out);
+        bits.write(tick, 32);
+        bits.write(current.count, 32);
+        bits.writeBoolean(baseline != null);
+        if (baseline != null) {
+            bits.write(tick - baseline.tick, 6);
+        }
+
+        int positionBits = format.getPositionBits();
+        int deltaBits = format.getDeltaBits();
+        int deltaLimit = 1 << (deltaBits - 1);
+
+        for (int i = 0; i < current.count; i++) {
+            int x = current.x[i], y = current.y[i], z = current.z[i], rotation = current.rotation[i];
+
+            if (baseline == null || i >= baseline.count) {
+                bits.write(x, positionBits);
+                bits.write(y, positionBits);
+                bits.write(z, positionBits);
+                bits.write(rotation, SnapshotFormat.PACKED_ROTATION_BITS);
+                continue;
+            }
+
+            int dx = x - baseline.x[i], dy = y - baseline.y[i], dz = z - baseline.z[i];
+            boolean moved = dx != 0 || dy != 0 || dz != 0;
+            boolean rotated = rotation != baseline.rotation[i];
+
+            bits.writeBoolean(moved || rotated);
+            if (!moved && !rotated) {
+                continue;
+            }
+
+            bits.writeBoolean(moved);
+            if (moved) {
+                boolean small = Math.abs(dx) < deltaLimit && Math.abs(dy) < deltaLimit && Math.abs(dz) < deltaLimit;
+                bits.writeBoolean(small);
+                if (small) {
+                    bits.writeSigned(dx, deltaBits);
+                    bits.writeSigned(dy, deltaBits);
+                    bits.writeSigned(dz, deltaBits);
+                } else {
+                    bits.write(x, positionBits);
+                    bits.write(y, positionBits);
+                    bits.write(z, positionBits);
+                }
+            }
+
+            bits.writeBoolean(rotated);
+            if (rotated) {
+                bits.write(rotation, SnapshotFormat.PACKED_ROTATION_BITS);
+            }
+        }
+        bits.flush();
+
+        int written = out.position() - start;
+        snapshots++;
+        bytes += written;
+        encodeTime += Time.getTime() - startTime;
+        return written;
+    }
+
+    // Converts a snapshot to its wire form
+    private void quantize(WorldSnapshot snapshot, QuantizedSnapshot out) {
+        int count = snapshot.getCount();
+        out.tick = snapshot.getTick();
+        out.resize(count);
+
+        for (int i = 0; i < count; i++) {
+            out.x[i] = format.quantizePosition(snapshot.getX(i));
+            out.y[i] = format.quantizePosition(snapshot.getY(i));
+            out.z[i] = format.quantizePosition(snapshot.getZ(i));
+            out.rotation[i] = format.packRotation(snapshot.getRotationX(i), snapshot.getRotationY(i),
+                                                  snapshot.getRotationZ(i), snapshot.getRotationW(i));
+        }
+    }
+
+    // Returns the number of snapshots encoded
+    public long getSnapshotCount() {
+        return snapshots;
+    }
+
+    // Returns the total number of bytes written
+    public long getTotalBytes() {
+        return bytes;
+    }
+
+    // Returns the average packet size in bytes
+    public double getBytesPerSnapshot() {
+        return snapshots == 0 ? 0 : bytes / (double) snapshots;
+    }
+
+    // Returns the total time spent encoding, in nanoseconds
+    public long getTotalEncodeTime() {
+        return encodeTime;
+    }
+}
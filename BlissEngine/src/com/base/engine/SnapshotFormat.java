@@ -0,0 +1,121 @@
+package com.base.engine;
+
+/**
+ * The SnapshotFormat class describes how snapshots are quantized on the wire, and must be the
+ * same on both ends. Positions are stored as fixed-point integers within the world bounds;
+ * rotations use "smallest three" encoding: the largest quaternion component is dropped (it
+ * follows from the other three since the quaternion has unit length) and the other three are
+ * stored with ROTATION_BITS bits each, plus 2 bits saying which one was dropped.
+ */
+public class SnapshotFormat {
+    // Bits per stored quaternion component; 2 + 3 * ROTATION_BITS must fit in 32 bits
+    public static final int ROTATION_BITS = 10;
+    public static final int PACKED_ROTATION_BITS = 2 + 3 * ROTATION_BITS;
+
+    // Range of the three stored components, which can't exceed 1/sqrt(2) in magnitude
+    private static final float ROTATION_RANGE = (float) (1.0 / Math.sqrt(2.0));
+    private static final int ROTATION_MAX = (1 << ROTATION_BITS) - 1;
+
+    private final float min;
+    private final float max;
+    private final int positionBits;
+    private final int positionMax;
+
+    // Bits per axis of a position delta sent relative to the baseline
+    private final int deltaBits;
+
+    /**
+     * Creates a format.
+     *
+     * @param min The lowest coordinate on any axis; positions are clamped to [min, max].
+     * @param max The highest coordinate on any axis.
+     * @param positionBits The bits per position axis (1 to 24); the resolution is (max - min) / 2^bits.
+     */
+    public SnapshotFormat(float min, float max, int positionBits) {
+        if (positionBits < 1 || positionBits > 24 || max <= min) {
+            throw new IllegalArgumentException("Invalid snapshot format: [" + min + ", " + max + "] with " + positionBits + " bits");
+        }
+
+        this.min = min;
+        this.max = max;
+        this.positionBits = positionBits;
+        this.positionMax = (1 << positionBits) - 1;
+        this.deltaBits = Math.max(positionBits / 2, 2);
+    }
+
+    // Converts a coordinate to its fixed-point value
+    int quantizePosition(float value) {
+        double t = (value - (double) min) / ((double) max - min);
+        return (int) Math.round(Math.max(0.0, Math.min(1.0, t)) * positionMax);
+    }
+
+    // Converts a fixed-point value back to a coordinate
+    float dequantizePosition(int value) {
+        return (float) (min + value / (double) positionMax * ((double) max - min));
+    }
+
+    // Packs a unit quaternion into PACKED_ROTATION_BITS bits
+    int packRotation(float x, float y, float z, float w) {
+        // Find the largest component, which is the one left out
+        int largest = 0;
+        float largestValue = Math.abs(x);
+        if (Math.abs(y) > largestValue) { largest = 1; largestValue = Math.abs(y); }
+        if (Math.abs(z) > largestValue) { largest = 2; largestValue = Math.abs(z); }
+        if (Math.abs(w) > largestValue) { largest = 3; }
+
+        // q and -q are the same rotation; flip so the dropped component is positive
+        float sign = (largest == 0 ? x : largest == 1 ? y : largest == 2 ? z : w) < 0 ? -1 : 1;
+        float a, b, c;
+        switch (largest) {
+            case 0:  a = y; b = z; c = w; break;
+            case 1:  a = x; b = z; c = w; break;
+            case 2:  a = x; b = y; c = w; break;
+            default: a = x; b = y; c = z; break;
+        }
+
+        return largest
+                | quantizeComponent(a * sign) << 2
+                | quantizeComponent(b * sign) << (2 + ROTATION_BITS)
+                | quantizeComponent(c * sign) << (2 + 2 * ROTATION_BITS);
+    }
+
+    // Unpacks a quaternion written by packRotation() into out as x, y, z, w
+    void unpackRotation(int packed, float[] out) {
+        int largest = packed & 3;
+        float a = dequantizeComponent(packed >>> 2 & ROTATION_MAX);
+        float b = dequantizeComponent(packed >>> (2 + ROTATION_BITS) & ROTATION_MAX);
+        float c = dequantizeComponent(packed >>> (2 + 2 * ROTATION_BITS) & ROTATION_MAX);
+        float d = (float) Math.sqrt(Math.max(0.0f, 1.0f - a * a - b * b - c * c));
+
+        switch (largest) {
+            case 0:  out[0] = d; out[1] = a; out[2] = b; out[3] = c; break;
+            case 1:  out[0] = a; out[1] = d; out[2] = b; out[3] = c; break;
+            case 2:  out[0] = a; out[1] = b; out[2] = d; out[3] = c; break;
+            default: out[0] = a; out[1] = b; out[2] = c; out[3] = d; break;
+        }
+    }
+
+    private static int quantizeComponent(float value) {
+        float t = (value + ROTATION_RANGE) / (2 * ROTATION_RANGE);
+        return Math.round(Math.max(0.0f, Math.min(1.0f, t)) * ROTATION_MAX);
+    }
+
+    private static float dequantizeComponent(int value) {
+        return value / (float) ROTATION_MAX * 2 * ROTATION_RANGE - ROTATION_RANGE;
+    }
+
+    // Returns the bits per position axis
+    public int getPositionBits() {
+        return positionBits;
+    }
+
+    // Returns the bits per axis of a position delta
+    public int getDeltaBits() {
+        return deltaBits;
+    }
+
+    // Returns the largest position error introduced by quantization
+    public float getPositionPrecision() {
+        return (max - min) / positionMax / 2;
+    }
+}
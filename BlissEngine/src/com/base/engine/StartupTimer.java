@@ -0,0 +1,59 @@
+package com.base.engine;
+
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The StartupTimer class measures how long the engine takes to start, from JVM launch to the
+ * first frame, and prints it once so startup regressions show up in every run.
+ *
+ * main() calls start() first thing, the engine marks each startup phase as it completes, and
+ * report() prints the time from JVM launch to main() followed by the time of each phase.
+ */
+public class StartupTimer {
+    private static long startTime;
+    private static long startMillis;
+    private static long lastTime;
+    private static final Map<String, Long> phases = new LinkedHashMap<String, Long>();
+    private static boolean reported;
+
+    // Starts timing; call as early as possible in main()
+    public static void start() {
+        startTime = Time.getTime();
+        startMillis = System.currentTimeMillis();
+        lastTime = startTime;
+    }
+
+    // Records the time since the previous mark (or start()) as the given phase
+    public static void mark(String phase) {
+        long time = Time.getTime();
+        phases.put(phase, time - lastTime);
+        lastTime = time;
+    }
+
+    // Returns the time from start() to the last mark in nanoseconds
+    public static long getEngineTime() {
+        return lastTime - startTime;
+    }
+
+    /**
+     * Prints the startup times, once. The JVM part is only looked up here, so loading the
+     * management classes isn't counted as part of startup.
+     */
+    public static void report() {
+        if (reported || startTime == 0) {
+            return;
+        }
+        reported = true;
+
+        long jvmMillis = Math.max(0, startMillis - ManagementFactory.getRuntimeMXBean().getStartTime());
+        StringBuilder report = new StringBuilder();
+        report.append(String.format("Startup: %.1f ms (JVM %d ms", jvmMillis + getEngineTime() / 1e6, jvmMillis));
+        for (Map.Entry<String, Long> phase : phases.entrySet()) {
+            report.append(String.format(", %s %.1f ms", phase.getKey(), phase.getValue() / 1e6));
+        }
+        report.append(')');
+        System.out.println(report);
+    }
+}
@@ -0,0 +1,19 @@
+package com.base.engine;
+
+/**
+ * A Subsystem is a part of the engine (window, input, renderer, audio, ...) that is set up on
+ * first use through a SubsystemRegistry rather than eagerly at startup.
+ */
+public interface Subsystem {
+
+    // Sets the subsystem up; called once, after the subsystems it depends on
+    void init();
+
+    // Releases the subsystem's resources; called once, on the thread that owns the registry,
+    // before the subsystems registered ahead of it
+    void dispose();
+
+    // Returns true if init() must run on the thread that owns the registry, e.g. because it
+    // creates an OpenGL context; dispose() always runs there
+    boolean requiresMainThread();
+}
@@ -0,0 +1,262 @@
+package com.base.engine;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * The SubsystemRegistry class sets subsystems up on first use instead of all at once at startup,
+ * so a run only pays for the subsystems it touches; a headless server never creates a window.
+ *
+ * Subsystems are registered with the names of the subsystems they depend on, which have to be
+ * registered first, and are disposed in reverse order of registration, so a subsystem that has
+ * to be torn down before another only needs to be registered after it. require() sets a
+ * subsystem and its dependencies up on the calling thread.
+ * initAll() sets several up at once: subsystems that may run on any thread are set up in
+ * parallel, each as soon as its dependencies are ready, while the main-thread ones are set up
+ * on the calling thread at the same time.
+ *
+ * The thread that creates the registry is its main thread. Subsystems that require it can only
+ * be set up from there; asking for one, or for something that depends on one, from another
+ * thread fails without changing any state, so the main thread can still set it up later.
+ * dispose() is always called on the main thread. The registry set with setGlobal() is the one
+ * static accessors such as Window and Input set themselves up through on first use.
+ */
+public class SubsystemRegistry {
+    private static volatile SubsystemRegistry global;
+
+    // A registered subsystem and its state
+    private static class Entry {
+        private final String name;
+        private final Subsystem subsystem;
+        private final String[] dependencies;
+        private CompletableFuture<Void> ready;  // Set once setting the subsystem up has been started
+        private long initTime;
+
+        private Entry(String name, Subsystem subsystem, String[] dependencies) {
+            this.name = name;
+            this.subsystem = subsystem;
+            this.dependencies = dependencies;
+        }
+    }
+
+    // Returns the registry static accessors set themselves up through, or null if none is set
+    public static SubsystemRegistry getGlobal() {
+        return global;
+    }
+
+    // Sets the registry static accessors set themselves up through
+    public static void setGlobal(SubsystemRegistry registry) {
+        global = registry;
+    }
+
+    private final Thread mainThread = Thread.currentThread();
+    private final Map<String, Entry> entries = new LinkedHashMap<String, Entry>();
+    // Subsystems in the order they finished setting up
+    private final List<Entry> initialized = new ArrayList<Entry>();
+
+    /**
+     * Registers a subsystem. Nothing is set up until the subsystem is first required.
+     *
+     * @param name The name to require the subsystem by.
+     * @param subsystem The subsystem.
+     * @param dependencies The names of registered subsystems that must be set up before this one.
+     */
+    public synchronized void register(String name, Subsystem subsystem, String... dependencies) {
+        if (entries.containsKey(name)) {
+            throw new IllegalArgumentException("Subsystem already registered: " + name);
+        }
+        for (String dependency : dependencies) {
+            if (!entries.containsKey(dependency)) {
+                throw new IllegalArgumentException("Subsystem " + name + " depends on unregistered subsystem " + dependency);
+            }
+        }
+        entries.put(name, new Entry(name, subsystem, dependencies));
+    }
+
+    /**
+     * Sets a subsystem and its dependencies up on the calling thread if that hasn't happened yet,
+     * or waits for another thread that is already doing it.
+     *
+     * @param name The name of the subsystem.
+     * @throws IllegalStateException If called off the main thread while the subsystem or one of
+     *     its dependencies still has to be set up on it.
+     */
+    public void require(String name) {
+        Entry entry;
+        boolean owner = false;
+        synchronized (this) {
+            entry = get(name);
+            checkCanStart(entry);
+            if (entry.ready == null) {
+                entry.ready = new CompletableFuture<Void>();
+                owner = true;
+            }
+        }
+
+        if (owner) {
+            try {
+                for (String dependency : entry.dependencies) {
+                    require(dependency);
+                }
+            } catch (RuntimeException e) {
+                entry.ready.completeExceptionally(e);
+                throw e;
+            }
+            initialize(entry);
+        }
+        entry.ready.join();
+    }
+
+    /**
+     * Sets the given subsystems and all their dependencies up, in parallel where possible, and
+     * waits until they are all ready.
+     *
+     * @param names The names of the subsystems.
+     */
+    public void initAll(String... names) {
+        List<Entry> mainThreadEntries = new ArrayList<Entry>();
+        List<CompletableFuture<Void>> futures = new ArrayList<CompletableFuture<Void>>();
+        synchronized (this) {
+            for (String name : names) {
+                checkCanStart(get(name));
+            }
+            for (String name : names) {
+                futures.add(start(get(name), mainThreadEntries));
+            }
+        }
+
+        // Entries are collected dependencies first, so each one's dependencies are either
+        // done already or being set up in the background
+        for (Entry entry : mainThreadEntries) {
+            for (String dependency : entry.dependencies) {
+                entries.get(dependency).ready.join();
+            }
+            initialize(entry);
+        }
+
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).join();
+    }
+
+    // Starts setting an entry and its dependencies up; main-thread entries are collected instead
+    private CompletableFuture<Void> start(Entry entry, List<Entry> mainThreadEntries) {
+        if (entry.ready != null) {
+            return entry.ready;
+        }
+
+        List<CompletableFuture<Void>> dependencies = new ArrayList<CompletableFuture<Void>>();
+        for (String dependency : entry.dependencies) {
+            dependencies.add(start(entries.get(dependency), mainThreadEntries));
+        }
+
+        entry.ready = new CompletableFuture<Void>();
+        if (entry.subsystem.requiresMainThread()) {
+            mainThreadEntries.add(entry);
+        } else {
+            // initialize() completes entry.ready itself; this only passes on failed dependencies
+            final Entry background = entry;
+            CompletableFuture.allOf(dependencies.toArray(new CompletableFuture<?>[0]))
+                    .thenRunAsync(() -> initialize(background))
+                    .exceptionally(e -> {
+                        background.ready.completeExceptionally(e);
+                        return null;
+                    });
+        }
+        return entry.ready;
+    }
+
+    // Sets an entry up on the calling thread and completes its future
+    private void initialize(Entry entry) {
+        long startTime = Time.getTime();
+        try {
+            entry.subsystem.init();
+        } catch (RuntimeException e) {
+            entry.ready.completeExceptionally(e);
+            throw e;
+        }
+        entry.initTime = Time.getTime() - startTime;
+
+        synchronized (this) {
+            initialized.add(entry);
+        }
+        entry.ready.complete(null);
+    }
+
+    // Throws before anything is claimed if the calling thread can't set up an entry that isn't
+    // started yet, or one of its dependencies, so a wrong-thread call leaves no failed future behind
+    private void checkCanStart(Entry entry) {
+        if (entry.ready != null) {
+            return;
+        }
+        if (entry.subsystem.requiresMainThread() && Thread.currentThread() != mainThread) {
+            throw new IllegalStateException("Subsystem " + entry.name + " must be set up on thread " + mainThread.getName());
+        }
+        for (String dependency : entry.dependencies) {
+            checkCanStart(entries.get(dependency));
+        }
+    }
+
+    private Entry get(String name) {
+        Entry entry = entries.get(name);
+        if (entry == null) {
+            throw new IllegalArgumentException("Unknown subsystem: " + name);
+        }
+        return entry;
+    }
+
+    /**
+     * Disposes all subsystems that have been set up, in reverse order of registration, so each
+     * one goes before the subsystems it depends on and any others registered before it. Must be
+     * called on the main thread, which is where every subsystem is disposed.
+     */
+    public void dispose() {
+        if (Thread.currentThread() != mainThread) {
+            throw new IllegalStateException("Subsystems must be disposed on thread " + mainThread.getName());
+        }
+
+        List<Entry> toDispose = new ArrayList<Entry>();
+        synchronized (this) {
+            for (Entry entry : entries.values()) {
+                if (initialized.contains(entry)) {
+                    toDispose.add(entry);
+                }
+                entry.ready = null;
+            }
+            initialized.clear();
+        }
+
+        for (int i = toDispose.size() - 1; i >= 0; i--) {
+            toDispose.get(i).subsystem.dispose();
+        }
+    }
+
+    // Returns true if a subsystem with the given name has been registered
+    public synchronized boolean isRegistered(String name) {
+        return entries.containsKey(name);
+    }
+
+    // Returns true if the subsystem has been set up
+    public synchronized boolean isInitialized(String name) {
+        CompletableFuture<Void> ready = get(name).ready;
+        return ready != null && ready.isDone() && !ready.isCompletedExceptionally();
+    }
+
+    // Returns the time it took to set the subsystem up in nanoseconds, or 0 if it hasn't been
+    public synchronized long getInitTime(String name) {
+        return isInitialized(name) ? get(name).initTime : 0;
+    }
+
+    // Returns the set up subsystems and how long each took, in the order they finished
+    public synchronized String report() {
+        StringBuilder report = new StringBuilder();
+        for (Entry entry : initialized) {
+            if (report.length() > 0) {
+                report.append(", ");
+            }
+            report.append(String.format("%s %.1f ms", entry.name, entry.initTime / 1e6));
+        }
+        return report.length() > 0 ? report.toString() : "none";
+    }
+}
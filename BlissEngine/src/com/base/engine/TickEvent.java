@@ -0,0 +1,29 @@
+package com.base.engine;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event spanning one game update tick (queued tasks, Input.update, game.input and game.update).
+ */
+@Name("com.base.engine.Tick")
+@Label("Tick")
+@Category("Bliss Engine")
+@Description("One game update tick of the main loop")
+@StackTrace(false)
+class TickEvent extends Event {
+    @Label("Tick")
+    long tick;
+
+    @Label("Frame")
+    @Description("Number of frames rendered before this tick")
+    long frame;
+
+    @Label("Allocated Bytes")
+    @Description("Bytes allocated by the loop thread during the tick, excluding the profiler")
+    long allocatedBytes;
+}
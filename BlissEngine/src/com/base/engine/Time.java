@@ -12,9 +12,11 @@ public class Time {
         return System.nanoTime();
     }
 
-    // Returns the delta time (time passed between frames)
+    // Returns the delta time (time passed between frames) of the engine instance ticking on this thread,
+    // or the one set by the main loop if no instance is bound
     public static double getDelta() {
-        return delta;
+        EngineContext context = EngineContext.current();
+        return context != null ? context.getDelta() : delta;
     }
 
     // Sets the delta time (used to update the game logic with time between frames)
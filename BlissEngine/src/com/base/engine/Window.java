@@ -1,12 +1,15 @@
 package com.base.engine;
 
 import org.lwjgl.LWJGLException;
-import org.lwjgl.input.Keyboard;
-import org.lwjgl.input.Mouse;
 import org.lwjgl.opengl.Display;
 import org.lwjgl.opengl.DisplayMode;
 
 public class Window {
+    // Name the window is registered under in the global SubsystemRegistry
+    public static final String SUBSYSTEM = "window";
+
+    private static boolean created;
+
     // Creates a window with the specified width, height, and title
     public static void createWindow(int width, int height, String title) {
         Display.setTitle(title);  // Set the title of the window
@@ -14,8 +17,7 @@ public class Window {
             // Set the display mode with the specified width and height
             Display.setDisplayMode(new DisplayMode(width, height));
             Display.create();  // Create the window with the current display settings
-            Keyboard.create();
-            Mouse.create();
+            created = true;
         } catch (LWJGLException e) {
             e.printStackTrace();  // Print the stack trace if there's an issue creating the window
         }
@@ -23,33 +25,50 @@ public class Window {
 
     // Updates the display; this should be called each frame to render the window's contents
     public static void render() {
+        ensureCreated();
         Display.update();  // Update the window with the latest rendered content
     }
 
     // Cleans up resources and destroys the window
     public static void dispose() {
         Display.destroy();  // Close the window and release resources
-        Keyboard.destroy();
-        Mouse.destroy();
+        created = false;
     }
 
     // Checks if the window close button has been pressed
     public static boolean isCloseRequested() {
+        ensureCreated();
         return Display.isCloseRequested();  // Return true if the user has requested to close the window
     }
 
     // Returns the current width of the window
     public static int getWidth() {
+        ensureCreated();
         return Display.getDisplayMode().getWidth();  // Get the width of the current display mode
     }
 
     // Returns the current height of the window
     public static int getHeight() {
+        ensureCreated();
         return Display.getDisplayMode().getHeight();  // Get the height of the current display mode
     }
 
     // Returns the current title of the window
     public static String getTitle() {
+        ensureCreated();
         return Display.getTitle();  // Get the title of the window
     }
+
+    // Returns true if the window has been created and not disposed
+    public static boolean isCreated() {
+        return created;
+    }
+
+    // Creates the window through the global registry the first time it is used
+    private static void ensureCreated() {
+        SubsystemRegistry registry = SubsystemRegistry.getGlobal();
+        if (!created && registry != null && registry.isRegistered(SUBSYSTEM)) {
+            registry.require(SUBSYSTEM);
+        }
+    }
 }
@@ -0,0 +1,28 @@
+package com.base.engine;
+
+/**
+ * Subsystem creating the game window and its OpenGL context.
+ */
+public class WindowSubsystem implements Subsystem {
+    private final int width;
+    private final int height;
+    private final String title;
+
+    public WindowSubsystem(int width, int height, String title) {
+        this.width = width;
+        this.height = height;
+        this.title = title;
+    }
+
+    public void init() {
+        Window.createWindow(width, height, title);
+    }
+
+    public void dispose() {
+        Window.dispose();
+    }
+
+    public boolean requiresMainThread() {
+        return true;
+    }
+}
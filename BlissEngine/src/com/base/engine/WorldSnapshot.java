@@ -0,0 +1,110 @@
+package com.base.engine;
+
+import java.util.Arrays;
+
+/**
+ * The WorldSnapshot class holds the networked state of a world for one tick: the position and
+ * rotation of every entity, stored in primitive arrays so a snapshot can be refilled every tick
+ * without allocating. Entities are identified by their index.
+ */
+public class WorldSnapshot {
+    private int tick;
+    private int count;
+
+    private float[] px, py, pz;
+    private float[] qx, qy, qz, qw;
+
+    /**
+     * Creates an empty snapshot.
+     *
+     * @param capacity The number of entities to allocate storage for; the snapshot grows as needed.
+     */
+    public WorldSnapshot(int capacity) {
+        px = new float[capacity];
+        py = new float[capacity];
+        pz = new float[capacity];
+        qx = new float[capacity];
+        qy = new float[capacity];
+        qz = new float[capacity];
+        qw = new float[capacity];
+    }
+
+    /**
+     * Sets the transform of an entity.
+     *
+     * @param i The index of the entity; must be below getCount().
+     */
+    public void set(int i, float x, float y, float z, float rx, float ry, float rz, float rw) {
+        px[i] = x;
+        py[i] = y;
+        pz[i] = z;
+        qx[i] = rx;
+        qy[i] = ry;
+        qz[i] = rz;
+        qw[i] = rw;
+    }
+
+    // Sets the position of an entity
+    public void setPosition(int i, Vector3f position) {
+        px[i] = position.getX();
+        py[i] = position.getY();
+        pz[i] = position.getZ();
+    }
+
+    // Returns the position of an entity as a new vector
+    public Vector3f getPosition(int i) {
+        return new Vector3f(px[i], py[i], pz[i]);
+    }
+
+    // Sets the rotation of an entity
+    public void setRotation(int i, Quaternion rotation) {
+        qx[i] = rotation.getX();
+        qy[i] = rotation.getY();
+        qz[i] = rotation.getZ();
+        qw[i] = rotation.getW();
+    }
+
+    // Returns the rotation of an entity as a new quaternion
+    public Quaternion getRotation(int i) {
+        return new Quaternion(qx[i], qy[i], qz[i], qw[i]);
+    }
+
+    // Returns the tick this snapshot was taken at
+    public int getTick() {
+        return tick;
+    }
+
+    // Sets the tick this snapshot was taken at
+    public void setTick(int tick) {
+        this.tick = tick;
+    }
+
+    // Returns the number of entities
+    public int getCount() {
+        return count;
+    }
+
+    // Sets the number of entities, growing the storage if needed
+    public void setCount(int count) {
+        if (count > px.length) {
+            int capacity = Math.max(count, px.length * 2);
+            px = Arrays.copyOf(px, capacity);
+            py = Arrays.copyOf(py, capacity);
+            pz = Arrays.copyOf(pz, capacity);
+            qx = Arrays.copyOf(qx, capacity);
+            qy = Arrays.copyOf(qy, capacity);
+            qz = Arrays.copyOf(qz, capacity);
+            qw = Arrays.copyOf(qw, capacity);
+        }
+        this.count = count;
+    }
+
+    // Raw component accessors for the encoder
+    float getX(int i) { return px[i]; }
+    float getY(int i) { return py[i]; }
+    float getZ(int i) { return pz[i]; }
+    float getRotationX(int i) { return qx[i]; }
+    float getRotationY(int i) { return qy[i]; }
+    float getRotationZ(int i) { return qz[i]; }
+    float getRotationW(int i) { return qw[i]; }
+}